@@ -0,0 +1,121 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferStrategy;
+
+public class ActiveRenderer {
+    // -Dgame.passiveRendering=true forces the old repaint() path, e.g. to compare frame times
+    public static final boolean ENABLED = !Boolean.getBoolean("game.passiveRendering");
+    
+    public interface Painter {
+        void draw(Graphics2D g2, int width, int height);
+    }
+    
+    private final JComponent host;
+    private final Painter painter;
+    private volatile Canvas canvas;
+    private volatile BufferStrategy strategy;
+    private volatile boolean unavailable = !ENABLED;
+    private volatile boolean creating = false;
+    
+    public ActiveRenderer(JComponent host, Painter painter) {
+        this.host = host;
+        this.painter = painter;
+    }
+    
+    // True once frames go to the canvas, so the host panel should stop painting itself
+    public boolean isActive() {
+        return strategy != null;
+    }
+    
+    // Draws and shows a frame directly from the calling (loop) thread;
+    // returns false when the caller should fall back to repaint()
+    public boolean render() {
+        if (unavailable || !host.isShowing()) return false;
+        BufferStrategy strategy = this.strategy;
+        Canvas canvas = this.canvas;
+        if (strategy == null || canvas == null) {
+            requestStrategy();
+            return false;
+        }
+        
+        try {
+            do {
+                do {
+                    Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        painter.draw(g2, canvas.getWidth(), canvas.getHeight());
+                    } finally {
+                        g2.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+        } catch (IllegalStateException e) {
+            // The canvas lost its peer (e.g. the window was disposed); rebuild on the next frame
+            this.strategy = null;
+            return false;
+        }
+        Toolkit.getDefaultToolkit().sync();
+        return true;
+    }
+    
+    // The canvas has to be added to the Swing tree on the EDT, so creation is only scheduled here
+    private void requestStrategy() {
+        if (creating) return;
+        creating = true;
+        SwingUtilities.invokeLater(() -> {
+            try {
+                createStrategy();
+            } finally {
+                creating = false;
+            }
+        });
+    }
+    
+    private void createStrategy() {
+        if (canvas == null) {
+            Canvas created = new Canvas();
+            created.setIgnoreRepaint(true);
+            // Keep keyboard focus on the host panel, which owns the key listeners
+            created.setFocusable(false);
+            created.addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    host.requestFocusInWindow();
+                }
+            });
+            host.setLayout(new BorderLayout());
+            host.add(created, BorderLayout.CENTER);
+            host.validate();
+            canvas = created;
+        }
+        if (strategy != null || !canvas.isDisplayable() || canvas.getWidth() <= 0) return;
+        
+        BufferStrategy created = null;
+        try {
+            // Prefer page flipping, then let AWT pick the best double-buffered blit strategy
+            try {
+                canvas.createBufferStrategy(2, new BufferCapabilities(
+                        new ImageCapabilities(true), new ImageCapabilities(true),
+                        BufferCapabilities.FlipContents.UNDEFINED));
+            } catch (AWTException e) {
+                canvas.createBufferStrategy(2);
+            }
+            created = canvas.getBufferStrategy();
+        } catch (RuntimeException e) {
+            created = null;
+        }
+        
+        if (created == null) {
+            // No usable strategy on this display, go back to painting the panel itself
+            unavailable = true;
+            host.remove(canvas);
+            host.revalidate();
+            canvas = null;
+            return;
+        }
+        strategy = created;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+import java.util.Arrays;
+
+public class BallStore {
+    // Parallel arrays, one slot per ball; slots [0, size) are live
+    double[] x, y;
+    // Position at the start of the current tick, for render interpolation
+    double[] px, py;
+    double[] vx, vy;
+    int[] radius;
+    // Index into RenderResources.ENEMY_BALLS
+    int[] color;
+    int size = 0;
+    
+    // Slots are recycled, so a hit reused spare capacity and a miss had to grow the arrays
+    private long hits = 0;
+    private long misses = 0;
+    
+    public BallStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        px = new double[capacity];
+        py = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        radius = new int[capacity];
+        color = new int[capacity];
+    }
+    
+    public void reserve(int capacity) {
+        if (x.length < capacity) {
+            resize(capacity);
+        }
+    }
+    
+    public int add(double bx, double by, int r, int ballColor) {
+        if (size == x.length) {
+            misses++;
+            resize(Math.max(16, x.length * 2));
+        } else {
+            hits++;
+        }
+        int i = size++;
+        x[i] = bx;
+        y[i] = by;
+        px[i] = bx;
+        py[i] = by;
+        vx[i] = 0;
+        vy[i] = 0;
+        radius[i] = r;
+        color[i] = ballColor;
+        return i;
+    }
+    
+    // Moves the last ball into the freed slot, so ball order is not preserved
+    public void remove(int i) {
+        int last = --size;
+        x[i] = x[last];
+        y[i] = y[last];
+        px[i] = px[last];
+        py[i] = py[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        radius[i] = radius[last];
+        color[i] = color[last];
+    }
+    
+    public void clear() {
+        size = 0;
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    // Simple AI: move towards the target but back off when closer than avoidDistance
+    public void steer(double targetX, double targetY, double speed, double avoidDistance) {
+        steer(targetX, targetY, speed, avoidDistance, 0, size);
+    }
+    
+    // Steers balls [from, to) only; disjoint ranges can run on different threads
+    public void steer(double targetX, double targetY, double speed, double avoidDistance, int from, int to) {
+        double avoidSq = avoidDistance * avoidDistance;
+        for (int i = from; i < to; i++) {
+            double dx = targetX - x[i];
+            double dy = targetY - y[i];
+            double distSq = dx * dx + dy * dy;
+            if (distSq > 0) {
+                double scale = speed / Math.sqrt(distSq);
+                if (distSq < avoidSq) {
+                    scale = -scale;
+                }
+                vx[i] += scale * dx;
+                vy[i] += scale * dy;
+            }
+        }
+    }
+    
+    public void integrate(double friction) {
+        integrate(friction, 0, size);
+    }
+    
+    public void integrate(double friction, int from, int to) {
+        for (int i = from; i < to; i++) {
+            px[i] = x[i];
+            py[i] = y[i];
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vx[i] *= friction;
+            vy[i] *= friction;
+        }
+    }
+    
+    private void resize(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        px = Arrays.copyOf(px, capacity);
+        py = Arrays.copyOf(py, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        color = Arrays.copyOf(color, capacity);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public class Benchmarks {
+    private static final long WARMUP_NANOS = 2_000_000_000L;
+    private static final long MEASURE_NANOS = 3_000_000_000L;
+    private static final int[] SUMO_ENEMY_COUNTS = {5, 50, 500, 5000};
+    private static final int[] SUMO_PARALLEL_COUNTS = {5000, 10000};
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    // Usage: java -Djava.awt.headless=true Benchmarks [name filter]
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        String filter = args.length > 0 ? args[0] : "";
+        System.out.printf("%-28s %14s %12s %12s%n", "Benchmark", "ns/op", "B/op", "MB/s alloc");
+        
+        for (Map.Entry<String, Supplier<Runnable>> entry : workloads().entrySet()) {
+            if (entry.getKey().contains(filter)) {
+                measure(entry.getKey(), entry.getValue().get());
+            }
+        }
+    }
+    
+    // Builds one case by name; the JMH benchmarks under jmh/ run the same workloads through this
+    public static Runnable workload(String name) {
+        Supplier<Runnable> workload = workloads().get(name);
+        if (workload == null) {
+            throw new IllegalArgumentException("Unknown benchmark: " + name);
+        }
+        return workload.get();
+    }
+    
+    // Every case in run order; games are only built when their case is selected
+    private static Map<String, Supplier<Runnable>> workloads() {
+        Map<String, Supplier<Runnable>> workloads = new LinkedHashMap<>();
+        workloads.put("update.madDriver", () -> update(new MadDriverGame(null)));
+        workloads.put("update.madDriver.dense", () -> {
+            MadDriverGame denseTraffic = new MadDriverGame(null);
+            denseTraffic.setSpawnChance(100);
+            return update(denseTraffic);
+        });
+        workloads.put("update.flyBird", () -> update(new FlyLikeBirdGame(null)));
+        for (int count : SUMO_ENEMY_COUNTS) {
+            workloads.put("update.sumo." + count, () -> update(sumo(count, false)));
+        }
+        for (int count : SUMO_PARALLEL_COUNTS) {
+            workloads.put("update.sumoParallel." + count, () -> update(sumo(count, true)));
+        }
+        
+        workloads.put("render.madDriver", () -> {
+            MadDriverGame madDriver = new MadDriverGame(null);
+            return render(madDriver, madDriver::renderTo);
+        });
+        workloads.put("render.flyBird", () -> {
+            FlyLikeBirdGame flyBird = new FlyLikeBirdGame(null);
+            return render(flyBird, flyBird::renderTo);
+        });
+        for (int count : SUMO_ENEMY_COUNTS) {
+            workloads.put("render.sumo." + count, () -> {
+                SumoBallGame sumo = sumo(count, false);
+                return render(sumo, sumo::renderTo);
+            });
+        }
+        return workloads;
+    }
+    
+    private static SumoBallGame sumo(int enemyCount, boolean parallelPhysics) {
+        SumoBallGame sumo = new SumoBallGame(null);
+        sumo.setBaseEnemyCount(enemyCount);
+        sumo.setParallelPhysics(parallelPhysics);
+        return sumo;
+    }
+    
+    // One op is one simulation tick; finished rounds are restarted with the same seed
+    private static Runnable update(HeadlessGame game) {
+        game.reset(1);
+        return () -> {
+            game.tick();
+            if (game.isOver()) {
+                game.reset(1);
+            }
+        };
+    }
+    
+    // One op is one full frame painted into an 800x600 offscreen image
+    private static Runnable render(HeadlessGame game, ActiveRenderer.Painter painter) {
+        game.reset(1);
+        // Advance a little so the frame shows a game in progress
+        for (int i = 0; i < 60 && !game.isOver(); i++) {
+            game.tick();
+        }
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = image.createGraphics();
+        return () -> painter.draw(g2, 800, 600);
+    }
+    
+    private static void measure(String name, Runnable op) {
+        runFor(op, WARMUP_NANOS);
+        
+        Map<Long, Long> allocatedBefore = allocatedByThread();
+        long start = System.nanoTime();
+        long ops = runFor(op, MEASURE_NANOS);
+        long elapsed = System.nanoTime() - start;
+        long allocated = 0;
+        for (Map.Entry<Long, Long> entry : allocatedByThread().entrySet()) {
+            allocated += entry.getValue() - allocatedBefore.getOrDefault(entry.getKey(), 0L);
+        }
+        
+        double nsPerOp = elapsed / (double) ops;
+        double bytesPerOp = allocated / (double) ops;
+        double mbPerSecond = allocated / (elapsed / 1e9) / (1024 * 1024);
+        System.out.printf("%-28s %14.1f %12.1f %12.1f%n", name, nsPerOp, bytesPerOp, mbPerSecond);
+    }
+    
+    // Bytes allocated so far by every live thread, so ForkJoin workers used by parallel
+    // physics are counted too. A thread that exits during the measurement is missed, and
+    // idle threads (the AWT ones, JMX) only add noise
+    private static Map<Long, Long> allocatedByThread() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+    
+    // Runs op in batches until the time budget is spent, returns the number of ops run
+    private static long runFor(Runnable op, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long ops = 0;
+        int batch = 1;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < batch; i++) {
+                op.run();
+            }
+            ops += batch;
+            batch = Math.min(batch * 2, 1 << 16);
+        }
+        return ops;
+    }
+}
\ No newline at end of file
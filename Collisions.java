@@ -0,0 +1,55 @@
+// Continuous collision tests: each one checks the whole motion of a tick rather than
+// only where things ended up, so a fast mover cannot step over something thin.
+// Times are fractions of the tick, 0 at its start and 1 at its end.
+public final class Collisions {
+    private Collisions() {}
+    
+    // Whether a box moving by (dx, dy) overlaps a static box at any time during the tick.
+    // Like Rectangle.intersects, boxes that only touch along an edge do not count.
+    public static boolean sweptBoxes(double x, double y, double width, double height, double dx, double dy,
+                                     double otherX, double otherY, double otherWidth, double otherHeight) {
+        double enter = 0;
+        double exit = 1;
+        
+        if (dx == 0) {
+            if (x >= otherX + otherWidth || x + width <= otherX) return false;
+        } else {
+            double t1 = (otherX - (x + width)) / dx;
+            double t2 = (otherX + otherWidth - x) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        
+        if (dy == 0) {
+            if (y >= otherY + otherHeight || y + height <= otherY) return false;
+        } else {
+            double t1 = (otherY - (y + height)) / dy;
+            double t2 = (otherY + otherHeight - y) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        return enter < exit;
+    }
+    
+    // First time two circles moving from (ax, ay) and (bx, by) by the given displacements
+    // come within reach (the sum of their radii), or -1 if they stay apart all tick
+    public static double sweptCircles(double ax, double ay, double adx, double ady,
+                                      double bx, double by, double bdx, double bdy, double reach) {
+        // Work in b's frame: a starts at (px, py) and moves by (dx, dy)
+        double px = ax - bx;
+        double py = ay - by;
+        double dx = adx - bdx;
+        double dy = ady - bdy;
+        
+        double c = px * px + py * py - reach * reach;
+        if (c < 0) return 0; // Already overlapping at the start
+        double a = dx * dx + dy * dy;
+        double b = px * dx + py * dy;
+        if (a == 0 || b >= 0) return -1; // Not moving closer
+        
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) return -1; // Closest approach is still out of reach
+        double t = (-b - Math.sqrt(discriminant)) / a;
+        return t < 1 ? t : -1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+public class EntityPool<T> {
+    private final Supplier<T> factory;
+    private Object[] free;
+    private int freeCount = 0;
+    
+    // A hit reused a pooled object, a miss had to allocate a new one
+    private long hits = 0;
+    private long misses = 0;
+    
+    public EntityPool(int capacity, Supplier<T> factory) {
+        this.factory = factory;
+        this.free = new Object[capacity];
+        while (freeCount < capacity) {
+            free[freeCount++] = factory.get();
+        }
+    }
+    
+    // Makes room for capacity pooled objects; the extra ones are allocated now instead of on a miss
+    public void reserve(int capacity) {
+        if (free.length < capacity) {
+            int added = capacity - free.length;
+            free = Arrays.copyOf(free, capacity);
+            for (int i = 0; i < added; i++) {
+                free[freeCount++] = factory.get();
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    public T obtain() {
+        if (freeCount > 0) {
+            hits++;
+            T item = (T) free[--freeCount];
+            free[freeCount] = null;
+            return item;
+        }
+        misses++;
+        return factory.get();
+    }
+    
+    // Objects beyond the pool's capacity are left to the garbage collector
+    public void release(T item) {
+        if (freeCount < free.length) {
+            free[freeCount++] = item;
+        }
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+}
\ No newline at end of file
@@ -1,27 +1,40 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
-public class FlyLikeBirdGame {
+public class FlyLikeBirdGame implements LoopGame, HeadlessGame {
     private GameManager gameManager;
     private BirdGamePanel gamePanel;
-    private Timer gameTimer;
-    private boolean isRunning = false;
-    private boolean isPaused = false;
+    private GameLoop gameLoop;
+    private ActiveRenderer renderer;
+    private GameMetrics metrics;
+    private ReplayRecorder recorder = new ReplayRecorder(GameType.FLY_BIRD);
+    private InputQueue input = new InputQueue(256);
+    private InputQueue.Handler inputHandler = this::applyInput;
+    private long tickCount = 0;
+    private volatile boolean isRunning = false;
+    private volatile boolean isPaused = false;
+    private volatile boolean isOver = false;
+    
+    // Finished ticks, the only game state the panel reads
+    private SnapshotBuffer<Snapshot> snapshots = new SnapshotBuffer<>(Snapshot::new);
+    // How far the frame being drawn is between the last two ticks, 0..1
+    private volatile double renderAlpha = 1;
     
     // Game variables
     private int birdX = 100;
     private int birdY = 300;
+    private int previousBirdY = 300;
     private int birdVelocity = 0;
     private int gravity = 1;
     private int jumpStrength = -15;
-    private List<Rectangle> pipes;
+    // Pipes in spawn order, which is also x order since they all scroll at the same speed
+    private RectangleRing pipes;
+    // Pipes at the head of the ring that are already entirely left of the bird
+    private int pipesBehind = 0;
+    private EntityPool<Rectangle> pipePool = new EntityPool<>(16, Rectangle::new);
     private Random random;
     private int score = 0;
     private int gameSpeed = 3;
@@ -29,45 +42,64 @@ public class FlyLikeBirdGame {
     public FlyLikeBirdGame(GameManager manager) {
         this.gameManager = manager;
         this.gamePanel = new BirdGamePanel();
+        this.renderer = new ActiveRenderer(gamePanel, gamePanel::draw);
         this.random = new Random();
+        this.gameLoop = new GameLoop("Fly Like a Bird", this);
+        this.metrics = new GameMetrics("Fly Like a Bird");
+        gameLoop.setMetrics(metrics);
         initializeGame();
     }
     
     private void initializeGame() {
-        pipes = new ArrayList<>();
+        pipes = new RectangleRing(16);
         setupKeyListener();
+        publishSnapshot();
     }
     
     public JPanel getGamePanel() {
         return gamePanel;
     }
     
+    // Paints the current frame onto any surface, e.g. an offscreen image
+    void renderTo(Graphics2D g2, int width, int height) {
+        gamePanel.draw(g2, width, height);
+    }
+    
     public void startGame() {
+        // Every round gets its own seed so it can be replayed exactly
+        long seed = random.nextLong();
+        gameLoop.stop();
+        input.clear();
+        reset(seed);
+        recorder.begin(seed);
+        gameLoop.start();
+        
+        // Ensure focus is requested
+        gamePanel.requestFocusInWindow();
+    }
+    
+    @Override
+    public void reset(long seed) {
+        random.setSeed(seed);
+        resetState();
+    }
+    
+    private void resetState() {
         isRunning = true;
         isPaused = false;
+        isOver = false;
+        tickCount = 0;
         birdX = 100;
         birdY = 300;
+        previousBirdY = 300;
         birdVelocity = 0;
         score = 0;
-        pipes.clear();
-        
-        if (gameTimer != null && gameTimer.isRunning()) {
-            gameTimer.stop();
+        for (int i = 0; i < pipes.size(); i++) {
+            pipePool.release(pipes.get(i));
         }
-        
-        gameTimer = new Timer(16, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (!isPaused) {
-                    updateGame();
-                    gamePanel.repaint();
-                }
-            }
-        });
-        gameTimer.start();
-        
-        // Ensure focus is requested
-        gamePanel.requestFocusInWindow();
+        pipes.clear();
+        pipesBehind = 0;
+        publishSnapshot();
     }
     
     public void pauseGame() {
@@ -81,46 +113,104 @@ public class FlyLikeBirdGame {
     
     public void stopGame() {
         isRunning = false;
-        if (gameTimer != null) {
-            gameTimer.stop();
+        // A running tick may still record input, so the recording is dropped only after the loop has ended
+        gameLoop.stop();
+        recorder.cancel();
+    }
+    
+    // Frees what an idle game holds on to; only call after stopGame(), startGame() rebuilds it all.
+    // The pipes go with the ring and pool, which start over at their initial size.
+    public void releaseResources() {
+        pipes = new RectangleRing(16);
+        pipePool = new EntityPool<>(16, Rectangle::new);
+        pipesBehind = 0;
+        publishSnapshot();
+        gamePanel.releaseCaches();
+    }
+    
+    @Override
+    public void tick() {
+        // Nothing is applied or recorded while paused; releases made meanwhile wait for the resume
+        if (!isPaused) {
+            input.drain(inputHandler);
+            updateGame();
+            metrics.setEntityCount(pipes.size());
+            metrics.setPoolCounts(pipePool.getHits(), pipePool.getMisses());
+            publishSnapshot();
+        }
+    }
+    
+    // Key events reach the game here, on the loop thread, stamped with the tick they apply to
+    private void applyInput(int keyCode, boolean pressed) {
+        recorder.record(tickCount, keyCode, pressed);
+        if (pressed) {
+            pressKey(keyCode);
+        } else {
+            releaseKey(keyCode);
+        }
+    }
+    
+    private void publishSnapshot() {
+        snapshots.getBack().capture();
+        snapshots.publish();
+    }
+    
+    @Override
+    public void render(double alpha) {
+        // A paused game has no next tick to move towards
+        renderAlpha = isPaused || isOver ? 1 : alpha;
+        if (!renderer.render()) {
+            gamePanel.repaint();
         }
     }
     
     private void updateGame() {
         if (!isRunning) return;
+        tickCount++;
+        previousBirdY = birdY;
         
         // Bird physics
         birdVelocity += gravity;
         birdY += birdVelocity;
         
         // Generate pipes
-        if (pipes.isEmpty() || pipes.get(pipes.size() - 1).x < 600) {
+        if (pipes.isEmpty() || pipes.getLast().x < 600) {
             int gapHeight = 150;
             int gapY = 100 + random.nextInt(300);
-            pipes.add(new Rectangle(800, 0, 50, gapY)); // Top pipe
-            pipes.add(new Rectangle(800, gapY + gapHeight, 50, 600 - gapY - gapHeight)); // Bottom pipe
+            addPipe(800, 0, 50, gapY); // Top pipe
+            addPipe(800, gapY + gapHeight, 50, 600 - gapY - gapHeight); // Bottom pipe
         }
         
-        // Move pipes and check score
-        List<Rectangle> pipesToRemove = new ArrayList<>();
-        for (Rectangle pipe : pipes) {
-            pipe.x -= gameSpeed;
-            
-            if (pipe.x + pipe.width < 0) {
-                pipesToRemove.add(pipe);
-            }
+        // Move pipes; the ones that scrolled off the left edge are all at the head
+        for (int i = 0; i < pipes.size(); i++) {
+            pipes.get(i).x -= gameSpeed;
+        }
+        while (!pipes.isEmpty() && pipes.getFirst().x + pipes.getFirst().width < 0) {
+            pipePool.release(pipes.removeFirst());
+            pipesBehind = Math.max(0, pipesBehind - 1);
+        }
+        
+        // Only pipes overlapping the bird's column during this tick can score or collide
+        while (pipesBehind < pipes.size()) {
+            Rectangle pipe = pipes.get(pipesBehind);
+            if (pipe.x + pipe.width + gameSpeed > birdX - 15) break;
+            pipesBehind++;
+        }
+        for (int i = pipesBehind; i < pipes.size(); i++) {
+            Rectangle pipe = pipes.get(i);
+            if (pipe.x >= birdX + 15) break;
             
             // Check if bird passed pipe
             if (pipe.x + pipe.width == birdX && pipe.y == 0) {
                 score += 5;
             }
             
-            // Check collision
-            if (pipe.intersects(birdX - 15, birdY - 15, 30, 30)) {
+            // Check collision over the whole tick, in the pipe's frame, so a fast fall cannot skip a pipe
+            if (Collisions.sweptBoxes(birdX - 15, previousBirdY - 15, 30, 30, gameSpeed, birdY - previousBirdY,
+                                      pipe.x + gameSpeed, pipe.y, pipe.width, pipe.height)) {
                 gameOver();
             }
         }
-        pipes.removeAll(pipesToRemove);
         
         // Check boundaries
         if (birdY <= 0 || birdY >= 600) {
@@ -128,11 +218,40 @@ public class FlyLikeBirdGame {
         }
     }
     
+    @Override
+    public boolean isOver() {
+        return isOver;
+    }
+    
+    @Override
+    public int getScore() {
+        return score;
+    }
+    
+    @Override
+    public void pressKey(int keyCode) {
+        if (keyCode == KeyEvent.VK_SPACE || keyCode == KeyEvent.VK_UP) {
+            jump();
+        }
+    }
+    
+    @Override
+    public void releaseKey(int keyCode) {}
+    
+    private void addPipe(int x, int y, int width, int height) {
+        Rectangle pipe = pipePool.obtain();
+        pipe.setBounds(x, y, width, height);
+        pipes.add(pipe);
+    }
+    
+    
     private void gameOver() {
+        if (isOver) return; // Hit a pipe and the ground in the same tick
         isRunning = false;
-        gameTimer.stop();
-        JOptionPane.showMessageDialog(gamePanel, "Game Over! Final Score: " + score);
-        gameManager.showMainMenu();
+        isOver = true;
+        recorder.finish(tickCount, score);
+        // The loop keeps running so the panel can draw the game-over screen;
+        // the key listener on the EDT leaves it through the game manager
     }
     
     private void jump() {
@@ -148,17 +267,31 @@ public class FlyLikeBirdGame {
             
             @Override
             public void keyPressed(KeyEvent e) {
-                System.out.println("Key pressed: " + e.getKeyCode()); // Debug
-                
-                if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                if (isOver) {
+                    // Game-over screen: ENTER plays again, ESC goes back to the menu
+                    if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                        gameManager.restartCurrentGame();
+                    } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        gameManager.returnToMainMenu();
+                    }
+                } else if (isPaused) {
+                    // The pause menu is up: ESC closes it, every other key is ignored
+                    if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        gameManager.resumeGame();
+                    }
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                     gameManager.showInGameMenu();
-                } else if (e.getKeyCode() == KeyEvent.VK_SPACE || e.getKeyCode() == KeyEvent.VK_UP) {
-                    jump();
+                } else if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    metrics.toggleOverlay();
+                } else {
+                    input.offer(e.getKeyCode(), true);
                 }
             }
             
             @Override
-            public void keyReleased(KeyEvent e) {}
+            public void keyReleased(KeyEvent e) {
+                input.offer(e.getKeyCode(), false);
+            }
         });
         
         // Also add focus listener to ensure panel gets focus when clicked
@@ -169,68 +302,164 @@ public class FlyLikeBirdGame {
         });
     }
     
+    // Copy of everything the panel draws, refilled in place at the end of a tick
+    class Snapshot {
+        int birdX, birdY;
+        int previousBirdY;
+        int score;
+        boolean over;
+        int pipeCount;
+        int[] pipeX = new int[16];
+        int[] pipeY = new int[16];
+        int[] pipeWidth = new int[16];
+        int[] pipeHeight = new int[16];
+        
+        void capture() {
+            birdX = FlyLikeBirdGame.this.birdX;
+            birdY = FlyLikeBirdGame.this.birdY;
+            previousBirdY = FlyLikeBirdGame.this.previousBirdY;
+            score = FlyLikeBirdGame.this.score;
+            over = isOver;
+            pipeCount = pipes.size();
+            if (pipeX.length < pipeCount) {
+                int capacity = Math.max(pipeCount, pipeX.length * 2);
+                pipeX = new int[capacity];
+                pipeY = new int[capacity];
+                pipeWidth = new int[capacity];
+                pipeHeight = new int[capacity];
+            }
+            for (int i = 0; i < pipeCount; i++) {
+                Rectangle pipe = pipes.get(i);
+                pipeX[i] = pipe.x;
+                pipeY[i] = pipe.y;
+                pipeWidth[i] = pipe.width;
+                pipeHeight[i] = pipe.height;
+            }
+        }
+    }
+    
     class BirdGamePanel extends JPanel {
+        private LayerCache background = new LayerCache(this::drawBackground);
+        private SpriteAtlas sprites = new SpriteAtlas(128);
+        private int birdSprite;
+        private int wingSprite;
+        private final RenderResources.Gradient sky =
+                new RenderResources.Gradient(RenderResources.SKY_TOP, RenderResources.SKY_BOTTOM, false);
+        
+        // HUD text is pre-rendered; only the digits of the score change from frame to frame
+        private final HudText hud = new HudText(RenderResources.SCORE_FONT, Color.WHITE);
+        private final int scoreLabel = hud.addLine("Score: ", RenderResources.SCORE_FONT, Color.WHITE);
+        private final int hintLine = hud.addLine("Press SPACE/UP to flap, ESC for menu, F3 for stats", RenderResources.HINT_FONT, Color.WHITE);
+        private final int secondHintLine = hud.addLine("Click on the game area if keys don't work", RenderResources.HINT_FONT, Color.WHITE);
+        private final int pausedLine = hud.addLine("PAUSED", RenderResources.PAUSE_FONT, Color.YELLOW);
+        private final int gameOverLine = hud.addLine("GAME OVER", RenderResources.PAUSE_FONT, Color.YELLOW);
+        private final int finalScoreLabel = hud.addLine("Final Score: ", RenderResources.SCORE_FONT, Color.WHITE);
+        private final int restartLine = hud.addLine("Press ENTER to play again or ESC for the menu", RenderResources.HINT_FONT, Color.WHITE);
+        
+        // Drops the cached images; they are rendered again on the next draw
+        void releaseCaches() {
+            background.invalidate();
+            sprites.release();
+            hud.release();
+        }
+        
+        
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            
+            // Once the loop renders to its own canvas, painting here too would race with it
+            if (renderer.isActive()) return;
+            draw((Graphics2D) g, getWidth(), getHeight());
+        }
+        
+        private void drawBackground(Graphics2D g2, int width, int height) {
             // Draw sky background
-            GradientPaint skyGradient = new GradientPaint(0, 0, new Color(135, 206, 235), 
-                                                        0, getHeight(), new Color(100, 150, 255));
-            g2.setPaint(skyGradient);
-            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setPaint(sky.get(width, height));
+            g2.fillRect(0, 0, width, height);
             
             // Draw ground
-            g2.setColor(new Color(34, 139, 34));
-            g2.fillRect(0, 500, getWidth(), 100);
+            g2.setColor(RenderResources.GROUND);
+            g2.fillRect(0, 500, width, 100);
+        }
+        
+        // Body, beak and eye, with the body's top-left corner at the origin
+        private void drawBird(Graphics2D g2, int width, int height) {
+            g2.setColor(Color.YELLOW);
+            g2.fillOval(0, 0, 30, 30);
+            g2.setColor(Color.ORANGE);
+            g2.fillOval(25, 10, 10, 5); // Beak
+            g2.setColor(Color.WHITE);
+            g2.fillOval(10, 5, 10, 10);
+            g2.setColor(Color.BLACK);
+            g2.fillOval(13, 8, 5, 5);
+        }
+        
+        private void drawWing(Graphics2D g2, int width, int height) {
+            g2.setColor(Color.ORANGE);
+            g2.fillOval(0, 0, width, height);
+        }
+        
+        void draw(Graphics2D g2, int width, int height) {
+            long paintStart = System.nanoTime();
+            Snapshot frame = snapshots.getFront();
+            double alpha = renderAlpha;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            
+            // Static scenery is rendered once and blitted every frame
+            background.draw(g2, width, height);
             
             // Draw pipes
-            g2.setColor(new Color(0, 150, 0));
-            for (Rectangle pipe : pipes) {
-                g2.fillRect(pipe.x, pipe.y, pipe.width, pipe.height);
+            // Every pipe moved left by the same step last tick, so its previous x is implied
+            g2.setColor(RenderResources.PIPE);
+            int lag = (int) Math.round(gameSpeed * (1 - alpha));
+            for (int i = 0; i < frame.pipeCount; i++) {
+                int x = frame.pipeX[i] + lag;
+                int y = frame.pipeY[i];
+                int pipeHeight = frame.pipeHeight[i];
+                g2.fillRect(x, y, frame.pipeWidth[i], pipeHeight);
                 // Pipe details
-                g2.setColor(new Color(0, 100, 0));
-                g2.fillRect(pipe.x - 5, pipe.y, 60, 20);
-                g2.fillRect(pipe.x - 5, pipe.y + pipe.height - 20, 60, 20);
-                g2.setColor(new Color(0, 150, 0));
+                g2.setColor(RenderResources.PIPE_RIM);
+                g2.fillRect(x - 5, y, 60, 20);
+                g2.fillRect(x - 5, y + pipeHeight - 20, 60, 20);
+                g2.setColor(RenderResources.PIPE);
             }
             
             // Draw bird
-            g2.setColor(Color.YELLOW);
-            g2.fillOval(birdX - 15, birdY - 15, 30, 30);
-            g2.setColor(Color.ORANGE);
-            g2.fillOval(birdX + 10, birdY - 5, 10, 5); // Beak
-            g2.setColor(Color.WHITE);
-            g2.fillOval(birdX - 5, birdY - 10, 10, 10);
-            g2.setColor(Color.BLACK);
-            g2.fillOval(birdX - 2, birdY - 7, 5, 5);
+            if (sprites.find(0) < 0) {
+                birdSprite = sprites.add(0, 35, 30, 2, this::drawBird);
+                wingSprite = sprites.add(1, 20, 10, 2, this::drawWing);
+            }
+            int birdY = frame.previousBirdY + (int) Math.round((frame.birdY - frame.previousBirdY) * alpha);
+            sprites.draw(g2, birdSprite, frame.birdX - 15, birdY - 15);
             
             // Draw wing (animated)
-            g2.setColor(Color.ORANGE);
             int wingY = birdY + (int)(Math.sin(System.currentTimeMillis() / 100.0) * 3);
-            g2.fillOval(birdX - 10, wingY, 20, 10);
+            sprites.draw(g2, wingSprite, frame.birdX - 10, wingY);
             
             // Draw score
-            g2.setColor(Color.WHITE);
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
-            g2.drawString("Score: " + score, 20, 30);
+            hud.drawLabelled(g2, scoreLabel, frame.score, 20, 30);
             
             // Draw controls hint
-            g2.setFont(new Font("Arial", Font.PLAIN, 14));
-            g2.drawString("Press SPACE/UP to flap, ESC for menu", 20, getHeight() - 20);
-            g2.drawString("Click on the game area if keys don't work", 20, getHeight() - 40);
+            hud.drawLine(g2, hintLine, 20, height - 20);
+            hud.drawLine(g2, secondHintLine, 20, height - 40);
             
             if (isPaused) {
-                g2.setColor(new Color(0, 0, 0, 150));
-                g2.fillRect(0, 0, getWidth(), getHeight());
-                g2.setColor(Color.YELLOW);
-                g2.setFont(new Font("Arial", Font.BOLD, 36));
-                String pauseText = "PAUSED";
-                int textWidth = g2.getFontMetrics().stringWidth(pauseText);
-                g2.drawString(pauseText, (getWidth() - textWidth) / 2, getHeight() / 2);
+                g2.setColor(RenderResources.PAUSE_SHADE);
+                g2.fillRect(0, 0, width, height);
+                hud.drawCentered(g2, pausedLine, width, height / 2);
             }
+            
+            if (frame.over) {
+                g2.setColor(RenderResources.PAUSE_SHADE);
+                g2.fillRect(0, 0, width, height);
+                hud.drawCentered(g2, gameOverLine, width, height / 2 - 30);
+                int scoreWidth = hud.getWidth(finalScoreLabel) + hud.getNumberWidth(frame.score);
+                hud.drawLabelled(g2, finalScoreLabel, frame.score, (width - scoreWidth) / 2, height / 2 + 10);
+                hud.drawCentered(g2, restartLine, width, height / 2 + 45);
+            }
+            
+            metrics.drawOverlay(g2, width);
+            metrics.recordFrame(System.nanoTime() - paintStart);
         }
     }
 }
\ No newline at end of file
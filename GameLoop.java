@@ -0,0 +1,136 @@
+import java.awt.GraphicsEnvironment;
+import java.util.concurrent.locks.LockSupport;
+
+public class GameLoop {
+    public static final int DEFAULT_TICK_RATE = Integer.getInteger("game.tickRate", 60);
+    // Defaults to the display's refresh rate, so interpolated frames reach 120 and 144 Hz screens
+    public static final int DEFAULT_FRAME_CAP = Integer.getInteger("game.frameCap", displayRefreshRate());
+    
+    // Never run more than this many catch-up ticks per frame, drop the rest
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    
+    private final String name;
+    private final LoopGame game;
+    private volatile long tickNanos;
+    private volatile long frameNanos;
+    private volatile Thread thread;
+    private GameMetrics metrics;
+    
+    public GameLoop(String name, LoopGame game) {
+        this(name, game, DEFAULT_TICK_RATE, DEFAULT_FRAME_CAP);
+    }
+    
+    public GameLoop(String name, LoopGame game, int ticksPerSecond, int maxFramesPerSecond) {
+        this.name = name;
+        this.game = game;
+        setTickRate(ticksPerSecond);
+        setFrameCap(maxFramesPerSecond);
+    }
+    
+    // The default screen's refresh rate, or 60 when it is unknown or there is no screen
+    private static int displayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) return 60;
+        int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDisplayMode().getRefreshRate();
+        return rate > 0 ? rate : 60;
+    }
+    
+    public void setTickRate(int ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + ticksPerSecond);
+        }
+        tickNanos = 1_000_000_000L / ticksPerSecond;
+    }
+    
+    // 0 means render as often as possible
+    public void setFrameCap(int maxFramesPerSecond) {
+        frameNanos = maxFramesPerSecond > 0 ? 1_000_000_000L / maxFramesPerSecond : 0;
+    }
+    
+    // Records how long each tick takes
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    public void start() {
+        Thread t = new Thread(this::run, name + " loop");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+    
+    // Waits for the loop to finish its current tick or frame, unless called from the loop itself.
+    // The loop checks for this between ticks and never waits on the caller, so the wait is short;
+    // once stop() returns, the game is no longer being ticked or rendered.
+    public void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t == null || t == Thread.currentThread()) return;
+        LockSupport.unpark(t);
+        boolean interrupted = false;
+        while (t.isAlive()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public boolean isRunning() {
+        return thread != null;
+    }
+    
+    // Ticks and renders on this thread; the EDT only delivers input and repaints panels
+    private void run() {
+        Thread self = Thread.currentThread();
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        
+        while (thread == self) {
+            long frameStart = System.nanoTime();
+            accumulator += frameStart - previous;
+            previous = frameStart;
+            
+            long step = tickNanos;
+            int ticks = (int) Math.min(accumulator / step, MAX_TICKS_PER_FRAME);
+            accumulator -= ticks * step;
+            if (accumulator >= step) {
+                accumulator %= step;
+            }
+            
+            try {
+                for (int i = 0; i < ticks && thread == self; i++) {
+                    long tickStart = System.nanoTime();
+                    game.tick();
+                    if (metrics != null) {
+                        metrics.recordTick(System.nanoTime() - tickStart);
+                    }
+                }
+                if (thread == self) {
+                    game.render(accumulator / (double) step);
+                }
+            } catch (RuntimeException e) {
+                if (thread == self) {
+                    thread = null;
+                }
+                throw new RuntimeException(name + " loop failed", e);
+            }
+            
+            if (frameNanos == 0) {
+                Thread.yield();
+                continue;
+            }
+            
+            // Sleep until the next frame is due
+            long deadline = frameStart + frameNanos;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0 && thread == self) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+}
\ No newline at end of file
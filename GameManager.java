@@ -2,28 +2,71 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Random;
 
 public class GameManager {
     private JFrame mainFrame;
     private CardLayout cardLayout;
     private JPanel mainPanel;
+    private InGameMenu inGameMenu;
     private GameState currentGameState = GameState.MAIN_MENU;
     
-    // Game instances
+    // Game instances, each created the first time it is needed
     private MadDriverGame madDriverGame;
     private FlyLikeBirdGame flyLikeBirdGame;
     private SumoBallGame sumoBallGame;
     private GameType currentGameType;
     
+    // -Dgame.preload=true builds the games one by one while the main menu sits idle
+    private static final boolean PRELOAD = Boolean.getBoolean("game.preload");
+    private Timer preloadTimer;
+    
     public GameManager() {
-        initializeGames();
         setupMainFrame();
+        schedulePreload();
+    }
+    
+    private MadDriverGame getMadDriverGame() {
+        if (madDriverGame == null) {
+            madDriverGame = new MadDriverGame(this);
+            mainPanel.add(madDriverGame.getGamePanel(), "MAD_DRIVER");
+        }
+        return madDriverGame;
+    }
+    
+    private FlyLikeBirdGame getFlyLikeBirdGame() {
+        if (flyLikeBirdGame == null) {
+            flyLikeBirdGame = new FlyLikeBirdGame(this);
+            mainPanel.add(flyLikeBirdGame.getGamePanel(), "FLY_BIRD");
+        }
+        return flyLikeBirdGame;
+    }
+    
+    private SumoBallGame getSumoBallGame() {
+        if (sumoBallGame == null) {
+            sumoBallGame = new SumoBallGame(this);
+            mainPanel.add(sumoBallGame.getGamePanel(), "SUMO_BALL");
+        }
+        return sumoBallGame;
     }
     
-    private void initializeGames() {
-        madDriverGame = new MadDriverGame(this);
-        flyLikeBirdGame = new FlyLikeBirdGame(this);
-        sumoBallGame = new SumoBallGame(this);
+    // Creates at most one game per timer tick, and only while nobody is playing
+    private void schedulePreload() {
+        if (!PRELOAD) return;
+        
+        preloadTimer = new Timer(500, e -> {
+            if (currentGameState != GameState.MAIN_MENU) return;
+            if (madDriverGame == null) {
+                getMadDriverGame();
+            } else if (flyLikeBirdGame == null) {
+                getFlyLikeBirdGame();
+            } else if (sumoBallGame == null) {
+                getSumoBallGame();
+            } else {
+                preloadTimer.stop();
+            }
+        });
+        preloadTimer.start();
     }
     
     private void setupMainFrame() {
@@ -36,30 +79,41 @@ public class GameManager {
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
         
-        // Add all panels to card layout
+        // Game panels are added to the card layout as the games are created
         mainPanel.add(createMainMenu(), "MAIN_MENU");
-        mainPanel.add(madDriverGame.getGamePanel(), "MAD_DRIVER");
-        mainPanel.add(flyLikeBirdGame.getGamePanel(), "FLY_BIRD");
-        mainPanel.add(sumoBallGame.getGamePanel(), "SUMO_BALL");
         
         mainFrame.add(mainPanel);
+        
+        // Created up front but not shown, so pausing never builds a window
+        inGameMenu = new InGameMenu(this, mainFrame);
     }
     
     public void showMainMenu() {
+        inGameMenu.hideMenu();
         cardLayout.show(mainPanel, "MAIN_MENU");
         currentGameState = GameState.MAIN_MENU;
         mainFrame.setVisible(true);
         
-        // Stop all games when returning to main menu
-        madDriverGame.stopGame();
-        flyLikeBirdGame.stopGame();
-        sumoBallGame.stopGame();
+        // Stop all games when returning to main menu, and let go of their entities and images
+        if (madDriverGame != null) {
+            madDriverGame.stopGame();
+            madDriverGame.releaseResources();
+        }
+        if (flyLikeBirdGame != null) {
+            flyLikeBirdGame.stopGame();
+            flyLikeBirdGame.releaseResources();
+        }
+        if (sumoBallGame != null) {
+            sumoBallGame.stopGame();
+            sumoBallGame.releaseResources();
+        }
     }
     
     public void startGame(GameType gameType) {
         currentGameType = gameType;
         switch (gameType) {
             case MAD_DRIVER:
+                getMadDriverGame();
                 cardLayout.show(mainPanel, "MAD_DRIVER");
                 madDriverGame.startGame();
                 // Request focus after showing the panel
@@ -68,6 +122,7 @@ public class GameManager {
                 });
                 break;
             case FLY_BIRD:
+                getFlyLikeBirdGame();
                 cardLayout.show(mainPanel, "FLY_BIRD");
                 flyLikeBirdGame.startGame();
                 SwingUtilities.invokeLater(() -> {
@@ -75,6 +130,7 @@ public class GameManager {
                 });
                 break;
             case SUMO_BALL:
+                getSumoBallGame();
                 cardLayout.show(mainPanel, "SUMO_BALL");
                 sumoBallGame.startGame();
                 SwingUtilities.invokeLater(() -> {
@@ -97,11 +153,13 @@ public class GameManager {
             case SUMO_BALL: sumoBallGame.pauseGame(); break;
         }
         
-        InGameMenu menu = new InGameMenu(this);
-        menu.showDialog(mainFrame);
+        inGameMenu.showMenu();
     }
     
     public void resumeGame() {
+        if (currentGameState != GameState.PAUSED) return;
+        
+        inGameMenu.hideMenu();
         currentGameState = GameState.IN_GAME;
         
         // Resume the current game
@@ -110,9 +168,11 @@ public class GameManager {
             case FLY_BIRD: flyLikeBirdGame.resumeGame(); break;
             case SUMO_BALL: sumoBallGame.resumeGame(); break;
         }
+        focusCurrentGame();
     }
     
     public void restartCurrentGame() {
+        inGameMenu.hideMenu();
         switch (currentGameType) {
             case MAD_DRIVER: 
                 madDriverGame.stopGame();
@@ -128,6 +188,18 @@ public class GameManager {
                 break;
         }
         currentGameState = GameState.IN_GAME;
+        focusCurrentGame();
+    }
+    
+    // Gives the keyboard back to the game once the pause menu has closed
+    private void focusCurrentGame() {
+        JPanel panel;
+        switch (currentGameType) {
+            case MAD_DRIVER: panel = madDriverGame.getGamePanel(); break;
+            case FLY_BIRD: panel = flyLikeBirdGame.getGamePanel(); break;
+            default: panel = sumoBallGame.getGamePanel(); break;
+        }
+        SwingUtilities.invokeLater(panel::requestFocusInWindow);
     }
     
     public void returnToMainMenu() {
@@ -136,37 +208,52 @@ public class GameManager {
     
     private JPanel createMainMenu() {
         JPanel panel = new JPanel() {
+            private final RenderResources.Gradient background =
+                    new RenderResources.Gradient(RenderResources.MENU_TOP, RenderResources.MENU_BOTTOM, true);
+            private final RenderResources.Text title =
+                    new RenderResources.Text("Three-in-One Game Suite", RenderResources.TITLE_FONT);
+            
+            // The whole backdrop is static, so a button rollover only blits the part under the button
+            private final LayerCache backdrop = new LayerCache(this::drawBackdrop);
+            
+            // Star positions as fractions of the panel size, picked once so they don't move between repaints
+            private final double[] starX = new double[50];
+            private final double[] starY = new double[50];
+            
+            {
+                Random random = new Random();
+                for (int i = 0; i < starX.length; i++) {
+                    starX[i] = random.nextDouble();
+                    starY[i] = random.nextDouble();
+                }
+            }
+            
             @Override
             protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g;
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                
+                backdrop.draw((Graphics2D) g, getWidth(), getHeight());
+            }
+            
+            private void drawBackdrop(Graphics2D g2, int width, int height) {
                 // Draw background
-                GradientPaint gradient = new GradientPaint(0, 0, new Color(30, 30, 50), 
-                                                          getWidth(), getHeight(), new Color(20, 20, 40));
-                g2.setPaint(gradient);
-                g2.fillRect(0, 0, getWidth(), getHeight());
+                g2.setPaint(background.get(width, height));
+                g2.fillRect(0, 0, width, height);
                 
                 // Draw title
                 g2.setColor(Color.YELLOW);
-                g2.setFont(new Font("Arial", Font.BOLD, 48));
-                String title = "Three-in-One Game Suite";
-                int titleWidth = g2.getFontMetrics().stringWidth(title);
-                g2.drawString(title, (getWidth() - titleWidth) / 2, 100);
+                title.drawCentered(g2, width, 100);
                 
                 // Draw stars
                 g2.setColor(Color.WHITE);
-                for (int i = 0; i < 50; i++) {
-                    int x = (int)(Math.random() * getWidth());
-                    int y = (int)(Math.random() * getHeight());
+                for (int i = 0; i < starX.length; i++) {
+                    int x = (int)(starX[i] * width);
+                    int y = (int)(starY[i] * height);
                     g2.fillOval(x, y, 2, 2);
                 }
                 
                 // Draw creator name
                 g2.setColor(Color.WHITE);
-                g2.setFont(new Font("Arial", Font.ITALIC, 16));
-                g2.drawString("Created by: Aye Nyein Moe (6530089)", 20, getHeight() - 20);
+                g2.setFont(RenderResources.CREDIT_FONT);
+                g2.drawString("Created by: Aye Nyein Moe (6530089)", 20, height - 20);
             }
         };
         panel.setLayout(new GridBagLayout());
@@ -200,34 +287,32 @@ public class GameManager {
     
     private JButton createMenuButton(String text) {
         JButton button = new JButton(text) {
+            private final RenderResources.Gradient fill =
+                    new RenderResources.Gradient(RenderResources.BUTTON_TOP, RenderResources.BUTTON_BOTTOM, false);
+            private final RenderResources.Gradient rolloverFill =
+                    new RenderResources.Gradient(RenderResources.BUTTON_ROLLOVER_TOP, RenderResources.BUTTON_ROLLOVER_BOTTOM, false);
+            private final RenderResources.Text label = new RenderResources.Text(text, RenderResources.MENU_BUTTON_FONT);
+            
             @Override
             protected void paintComponent(Graphics g) {
                 Graphics2D g2 = (Graphics2D) g;
                 g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
                 
                 if (getModel().isRollover()) {
-                    GradientPaint gp = new GradientPaint(0, 0, new Color(100, 100, 180), 
-                                                       0, getHeight(), new Color(70, 70, 150));
-                    g2.setPaint(gp);
+                    g2.setPaint(rolloverFill.get(getWidth(), getHeight()));
                 } else {
-                    GradientPaint gp = new GradientPaint(0, 0, new Color(70, 70, 120), 
-                                                       0, getHeight(), new Color(50, 50, 100));
-                    g2.setPaint(gp);
+                    g2.setPaint(fill.get(getWidth(), getHeight()));
                 }
                 g2.fillRoundRect(0, 0, getWidth(), getHeight(), 25, 25);
                 
                 // Draw border
-                g2.setColor(new Color(255, 255, 255, 100));
-                g2.setStroke(new BasicStroke(2));
+                g2.setColor(RenderResources.BUTTON_BORDER);
+                g2.setStroke(RenderResources.THIN_STROKE);
                 g2.drawRoundRect(1, 1, getWidth()-2, getHeight()-2, 25, 25);
                 
                 // Draw text
                 g2.setColor(Color.WHITE);
-                g2.setFont(new Font("Arial", Font.BOLD, 20));
-                FontMetrics fm = g2.getFontMetrics();
-                int x = (getWidth() - fm.stringWidth(getText())) / 2;
-                int y = (getHeight() + fm.getAscent()) / 2 - 2;
-                g2.drawString(getText(), x, y);
+                label.drawCentered(g2, getWidth(), (getHeight() + label.ascent) / 2 - 2);
             }
         };
         
@@ -238,12 +323,4 @@ public class GameManager {
         
         return button;
     }
-}
-
-enum GameState {
-    MAIN_MENU, IN_GAME, PAUSED
-}
-
-enum GameType {
-    MAD_DRIVER, FLY_BIRD, SUMO_BALL
 }
\ No newline at end of file
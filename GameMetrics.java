@@ -0,0 +1,204 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+public class GameMetrics implements GameMetricsMBean {
+    // GC pauses are JVM-wide, so every game shares one histogram
+    private static final LatencyHistogram GC_PAUSES = new LatencyHistogram();
+    
+    static {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                    if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                        GarbageCollectionNotificationInfo info =
+                                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                        if (isStopTheWorld(info)) {
+                            GC_PAUSES.record(info.getGcInfo().getDuration());
+                        }
+                    }
+                }, null, null);
+            }
+        }
+    }
+    
+    // ZGC and Shenandoah report each concurrent cycle ("end of GC cycle") next to its pauses, and newer
+    // G1 reports its concurrent cycle from a "G1 Concurrent GC" bean; those durations are not pauses
+    private static boolean isStopTheWorld(GarbageCollectionNotificationInfo info) {
+        return !info.getGcAction().contains("cycle") && !info.getGcName().contains("Concurrent");
+    }
+    
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private volatile int entityCount = 0;
+    private volatile long poolHits = 0;
+    private volatile long poolMisses = 0;
+    private volatile boolean overlayVisible = false;
+    
+    // Frames counted over the current one-second window
+    private long fpsWindowStart = System.nanoTime();
+    private int fpsWindowFrames = 0;
+    private volatile double framesPerSecond = 0;
+    
+    // Overlay text, formatted on the painting thread
+    private boolean overlayStale = true;
+    private String fpsLine, tickLine, frameLine, gcLine, poolLine;
+    
+    public GameMetrics(String gameName) {
+        try {
+            ObjectName name = new ObjectName("ThreeInOneGame:type=GameMetrics,name=" + ObjectName.quote(gameName));
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            // Metrics still work in-process without JMX
+            System.err.println("Could not register metrics for " + gameName + ": " + e);
+        }
+    }
+    
+    public void recordTick(long nanos) {
+        tickTimes.record(nanos);
+    }
+    
+    // Called once per painted frame with the time it took to paint
+    public void recordFrame(long nanos) {
+        frameTimes.record(nanos);
+        fpsWindowFrames++;
+        long now = System.nanoTime();
+        long elapsed = now - fpsWindowStart;
+        if (elapsed >= 1_000_000_000L) {
+            framesPerSecond = fpsWindowFrames * 1e9 / elapsed;
+            fpsWindowFrames = 0;
+            fpsWindowStart = now;
+            overlayStale = true;
+        }
+    }
+    
+    public void setEntityCount(int count) {
+        entityCount = count;
+    }
+    
+    // Running totals from the game's entity pool: hits reused a pooled object, misses allocated
+    public void setPoolCounts(long hits, long misses) {
+        poolHits = hits;
+        poolMisses = misses;
+    }
+    
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+    }
+    
+    public void drawOverlay(Graphics2D g2, int width) {
+        if (!overlayVisible) return;
+        
+        // Formatting on every frame would allocate, so the figures are refreshed once per FPS window
+        if (overlayStale) {
+            overlayStale = false;
+            fpsLine = String.format("FPS %.1f  entities %d", framesPerSecond, entityCount);
+            tickLine = String.format("tick  %6d  %6d  %6d", getTickP50Micros(), getTickP99Micros(), getTickMaxMicros());
+            frameLine = String.format("frame %6d  %6d  %6d", getFrameP50Micros(), getFrameP99Micros(), getFrameMaxMicros());
+            gcLine = String.format("GC %d pauses, p99 %d ms, max %d ms",
+                    getGcPauseCount(), getGcPauseP99Millis(), getGcPauseMaxMillis());
+            poolLine = String.format("pool %d hits, %d misses", poolHits, poolMisses);
+        }
+        
+        g2.setColor(RenderResources.OVERLAY_BACKGROUND);
+        g2.fillRect(width - 250, 10, 240, 126);
+        g2.setColor(Color.GREEN);
+        g2.setFont(RenderResources.OVERLAY_FONT);
+        int x = width - 240;
+        g2.drawString(fpsLine, x, 28);
+        g2.drawString("        p50     p99     max (us)", x, 46);
+        g2.drawString(tickLine, x, 62);
+        g2.drawString(frameLine, x, 78);
+        g2.drawString(gcLine, x, 94);
+        g2.drawString(poolLine, x, 110);
+        g2.drawString("F3 to hide", x, 126);
+    }
+    
+    @Override
+    public double getFramesPerSecond() {
+        return framesPerSecond;
+    }
+    
+    @Override
+    public long getTickP50Micros() {
+        return tickTimes.getPercentile(50) / 1000;
+    }
+    
+    @Override
+    public long getTickP99Micros() {
+        return tickTimes.getPercentile(99) / 1000;
+    }
+    
+    @Override
+    public long getTickMaxMicros() {
+        return tickTimes.getMax() / 1000;
+    }
+    
+    @Override
+    public long getFrameP50Micros() {
+        return frameTimes.getPercentile(50) / 1000;
+    }
+    
+    @Override
+    public long getFrameP99Micros() {
+        return frameTimes.getPercentile(99) / 1000;
+    }
+    
+    @Override
+    public long getFrameMaxMicros() {
+        return frameTimes.getMax() / 1000;
+    }
+    
+    @Override
+    public long getTickCount() {
+        return tickTimes.getCount();
+    }
+    
+    @Override
+    public long getFrameCount() {
+        return frameTimes.getCount();
+    }
+    
+    @Override
+    public int getEntityCount() {
+        return entityCount;
+    }
+    
+    @Override
+    public long getPoolHits() {
+        return poolHits;
+    }
+    
+    @Override
+    public long getPoolMisses() {
+        return poolMisses;
+    }
+    
+    @Override
+    public long getGcPauseCount() {
+        return GC_PAUSES.getCount();
+    }
+    
+    @Override
+    public long getGcPauseP99Millis() {
+        return GC_PAUSES.getPercentile(99);
+    }
+    
+    @Override
+    public long getGcPauseMaxMillis() {
+        return GC_PAUSES.getMax();
+    }
+    
+    @Override
+    public void reset() {
+        tickTimes.reset();
+        frameTimes.reset();
+    }
+}
\ No newline at end of file
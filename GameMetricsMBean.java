@@ -0,0 +1,34 @@
+// Read-only view of a game's GameMetrics for JMX clients such as jconsole
+public interface GameMetricsMBean {
+    double getFramesPerSecond();
+    
+    long getTickP50Micros();
+    
+    long getTickP99Micros();
+    
+    long getTickMaxMicros();
+    
+    long getFrameP50Micros();
+    
+    long getFrameP99Micros();
+    
+    long getFrameMaxMicros();
+    
+    long getTickCount();
+    
+    long getFrameCount();
+    
+    int getEntityCount();
+    
+    long getPoolHits();
+    
+    long getPoolMisses();
+    
+    long getGcPauseCount();
+    
+    long getGcPauseP99Millis();
+    
+    long getGcPauseMaxMillis();
+    
+    void reset();
+}
\ No newline at end of file
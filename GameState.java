@@ -0,0 +1,3 @@
+public enum GameState {
+    MAIN_MENU, IN_GAME, PAUSED
+}
\ No newline at end of file
@@ -0,0 +1,3 @@
+public enum GameType {
+    MAD_DRIVER, FLY_BIRD, SUMO_BALL
+}
\ No newline at end of file
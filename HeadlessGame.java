@@ -0,0 +1,15 @@
+// Drives a game's simulation without a display, e.g. with -Djava.awt.headless=true
+public interface HeadlessGame {
+    // Start a new round with a fixed random seed, without starting the game loop
+    void reset(long seed);
+    
+    void tick();
+    
+    void pressKey(int keyCode);
+    
+    void releaseKey(int keyCode);
+    
+    boolean isOver();
+    
+    int getScore();
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+import java.awt.event.KeyEvent;
+import java.util.Random;
+
+public class HeadlessSimulator {
+    // Feeds input to the game before each tick
+    public interface InputScript {
+        void apply(long tick, HeadlessGame game);
+    }
+    
+    private final HeadlessGame game;
+    private long rounds = 0;
+    private long totalScore = 0;
+    private int bestScore = 0;
+    
+    public HeadlessSimulator(HeadlessGame game) {
+        this.game = game;
+    }
+    
+    // Runs ticks as fast as possible, starting a new round (seed + round number) whenever one ends
+    public void run(long seed, long ticks, InputScript script) {
+        game.reset(seed);
+        for (long tick = 0; tick < ticks; tick++) {
+            script.apply(tick, game);
+            game.tick();
+            if (game.isOver()) {
+                finishRound();
+                game.reset(seed + rounds);
+            }
+        }
+    }
+    
+    private void finishRound() {
+        int score = game.getScore();
+        rounds++;
+        totalScore += score;
+        bestScore = Math.max(bestScore, score);
+    }
+    
+    public long getRounds() {
+        return rounds;
+    }
+    
+    public int getBestScore() {
+        return bestScore;
+    }
+    
+    public double getMeanScore() {
+        return rounds == 0 ? 0 : totalScore / (double) rounds;
+    }
+    
+    public static HeadlessGame createGame(GameType type) {
+        switch (type) {
+            case MAD_DRIVER: return new MadDriverGame(null);
+            case FLY_BIRD: return new FlyLikeBirdGame(null);
+            case SUMO_BALL: return new SumoBallGame(null);
+            default: throw new IllegalArgumentException("Unknown game: " + type);
+        }
+    }
+    
+    // Presses or releases one of the game's control keys on roughly every tenth tick
+    public static InputScript randomInput(GameType type, long seed) {
+        int[] keys;
+        switch (type) {
+            case MAD_DRIVER: keys = new int[] {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT}; break;
+            case FLY_BIRD: keys = new int[] {KeyEvent.VK_SPACE}; break;
+            default: keys = new int[] {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_UP, KeyEvent.VK_DOWN}; break;
+        }
+        Random random = new Random(seed);
+        return (tick, game) -> {
+            if (random.nextInt(10) == 0) {
+                int key = keys[random.nextInt(keys.length)];
+                if (random.nextBoolean()) {
+                    game.pressKey(key);
+                } else {
+                    game.releaseKey(key);
+                }
+            }
+        };
+    }
+    
+    // Usage: HeadlessSimulator <MAD_DRIVER|FLY_BIRD|SUMO_BALL> [ticks] [seed]
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 1) {
+            System.err.println("Usage: HeadlessSimulator <MAD_DRIVER|FLY_BIRD|SUMO_BALL> [ticks] [seed]");
+            System.exit(1);
+        }
+        GameType type = GameType.valueOf(args[0]);
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        
+        HeadlessSimulator simulator = new HeadlessSimulator(createGame(type));
+        long start = System.nanoTime();
+        simulator.run(seed, ticks, randomInput(type, seed));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        System.out.printf("%s: %d ticks in %.2f s (%.0f ticks/s)%n", type, ticks, seconds, ticks / seconds);
+        System.out.printf("Rounds: %d, mean score: %.1f, best score: %d%n",
+                simulator.getRounds(), simulator.getMeanScore(), simulator.getBestScore());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// Pre-rendered HUD text: fixed lines and the glyphs 0-9 and '-' live side by side in one image strip,
+// so drawing a label or a number is a few image copies instead of laying out glyphs every frame
+public class HudText {
+    // Antialiased edges can spill past a glyph's advance, so every entry gets this much room on each side
+    private static final int PAD = 1;
+    private static final String DIGITS = "0123456789-";
+    
+    // Entries 0-10 are the digits and minus sign, fixed lines follow in the order they were added
+    private String[] texts = new String[16];
+    private Font[] fonts = new Font[16];
+    private Color[] colors = new Color[16];
+    private int[] entryX = new int[16];
+    private int[] entryWidth = new int[16];
+    private int entryCount = 0;
+    
+    private BufferedImage image;
+    private int baseline;
+    private int height;
+    
+    // Scratch for the digits of the number being drawn, least significant first
+    private final int[] digits = new int[11];
+    
+    public HudText(Font digitFont, Color digitColor) {
+        for (int i = 0; i < DIGITS.length(); i++) {
+            addLine(DIGITS.substring(i, i + 1), digitFont, digitColor);
+        }
+    }
+    
+    // Registers a fixed line of text and returns its id; lines are rendered on the first draw
+    public int addLine(String text, Font font, Color color) {
+        int id = entryCount++;
+        if (id == texts.length) {
+            int capacity = id * 2;
+            texts = Arrays.copyOf(texts, capacity);
+            fonts = Arrays.copyOf(fonts, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            entryX = Arrays.copyOf(entryX, capacity);
+            entryWidth = Arrays.copyOf(entryWidth, capacity);
+        }
+        texts[id] = text;
+        fonts[id] = font;
+        colors[id] = color;
+        entryWidth[id] = RenderResources.getMetrics(font).stringWidth(text);
+        image = null;
+        return id;
+    }
+    
+    public int getWidth(int id) {
+        return entryWidth[id];
+    }
+    
+    // Draws a line with its baseline at y and returns the x where text following it would start
+    public int drawLine(Graphics2D g2, int id, int x, int y) {
+        if (image == null) {
+            render();
+        }
+        copy(g2, id, x, y);
+        return x + entryWidth[id];
+    }
+    
+    public void drawCentered(Graphics2D g2, int id, int areaWidth, int y) {
+        drawLine(g2, id, (areaWidth - entryWidth[id]) / 2, y);
+    }
+    
+    // Draws value in the digit font with its baseline at y and returns the x just past the last digit
+    public int drawNumber(Graphics2D g2, int value, int x, int y) {
+        if (image == null) {
+            render();
+        }
+        if (value < 0) {
+            copy(g2, 10, x, y);
+            x += entryWidth[10];
+        }
+        int count = 0;
+        long remaining = Math.abs((long) value);
+        do {
+            digits[count++] = (int) (remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        while (count > 0) {
+            int digit = digits[--count];
+            copy(g2, digit, x, y);
+            x += entryWidth[digit];
+        }
+        return x;
+    }
+    
+    public int getNumberWidth(int value) {
+        int width = value < 0 ? entryWidth[10] : 0;
+        long remaining = Math.abs((long) value);
+        do {
+            width += entryWidth[(int) (remaining % 10)];
+            remaining /= 10;
+        } while (remaining != 0);
+        return width;
+    }
+    
+    // A line immediately followed by a number, e.g. "Score: " and the score
+    public int drawLabelled(Graphics2D g2, int labelId, int value, int x, int y) {
+        return drawNumber(g2, value, drawLine(g2, labelId, x, y), y);
+    }
+    
+    // Frees the strip image; it is rendered again on the next draw
+    public void release() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+    }
+    
+    private void copy(Graphics2D g2, int id, int x, int y) {
+        int sx = entryX[id];
+        int w = entryWidth[id] + PAD * 2;
+        int dx = x - PAD;
+        int dy = y - baseline;
+        g2.drawImage(image, dx, dy, dx + w, dy + height, sx, 0, sx + w, height, null);
+    }
+    
+    private void render() {
+        int ascent = 0;
+        int descent = 0;
+        int width = 0;
+        for (int i = 0; i < entryCount; i++) {
+            FontMetrics metrics = RenderResources.getMetrics(fonts[i]);
+            ascent = Math.max(ascent, metrics.getAscent());
+            descent = Math.max(descent, metrics.getDescent());
+            entryX[i] = width;
+            width += entryWidth[i] + PAD * 2;
+        }
+        baseline = ascent;
+        height = ascent + descent;
+        
+        image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = image.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            for (int i = 0; i < entryCount; i++) {
+                g2.setFont(fonts[i]);
+                g2.setColor(colors[i]);
+                g2.drawString(texts[i], entryX[i] + PAD, baseline);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+}
\ No newline at end of file
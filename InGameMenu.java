@@ -2,43 +2,53 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 
+// Built once and only shown and hidden afterwards. A lightweight glass pane would be painted over
+// by the games' heavyweight canvas, so this stays a window, but a modeless one that keeps its peer.
 public class InGameMenu extends JDialog {
     private GameManager gameManager;
     
-    public InGameMenu(GameManager manager) {
+    public InGameMenu(GameManager manager, JFrame owner) {
+        super(owner);
         this.gameManager = manager;
         setupDialog();
     }
     
     private void setupDialog() {
-        setModal(true);
+        setModalityType(ModalityType.MODELESS);
+        setDefaultCloseOperation(JDialog.HIDE_ON_CLOSE);
         setUndecorated(true);
         setSize(300, 400);
         setLocationRelativeTo(null);
         
         JPanel panel = new JPanel() {
+            private final RenderResources.Text title = new RenderResources.Text("Game Paused", RenderResources.DIALOG_TITLE_FONT);
+            
+            // Rendered once; hovering a button only repaints the backdrop under that button
+            private final LayerCache backdrop = new LayerCache(this::drawBackdrop);
+            
             @Override
             protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g;
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                backdrop.draw((Graphics2D) g, getWidth(), getHeight());
+            }
+            
+            private void drawBackdrop(Graphics2D g2, int width, int height) {
+                g2.setColor(getBackground());
+                g2.fillRect(0, 0, width, height);
                 
                 // Draw semi-transparent background
-                g2.setColor(new Color(0, 0, 0, 200));
-                g2.fillRect(0, 0, getWidth(), getHeight());
+                g2.setColor(RenderResources.DIALOG_BACKGROUND);
+                g2.fillRect(0, 0, width, height);
                 
                 // Draw border
-                g2.setColor(new Color(255, 255, 255, 100));
-                g2.setStroke(new BasicStroke(3));
-                g2.drawRoundRect(5, 5, getWidth()-10, getHeight()-10, 20, 20);
+                g2.setColor(RenderResources.BUTTON_BORDER);
+                g2.setStroke(RenderResources.MEDIUM_STROKE);
+                g2.drawRoundRect(5, 5, width-10, height-10, 20, 20);
                 
                 // Draw title
                 g2.setColor(Color.YELLOW);
-                g2.setFont(new Font("Arial", Font.BOLD, 24));
-                String title = "Game Paused";
-                int titleWidth = g2.getFontMetrics().stringWidth(title);
-                g2.drawString(title, (getWidth() - titleWidth) / 2, 40);
+                title.drawCentered(g2, width, 40);
             }
         };
         panel.setLayout(new GridLayout(4, 1, 10, 10));
@@ -53,33 +63,41 @@ public class InGameMenu extends JDialog {
         }
         
         add(panel);
+        
+        // ESC closes the menu the same way it opened it
+        getRootPane().registerKeyboardAction(e -> gameManager.resumeGame(),
+                KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
     }
     
-    public void showDialog(JFrame parent) {
-        setLocationRelativeTo(parent);
+    // Returns immediately; the buttons call back into the game manager
+    public void showMenu() {
+        setLocationRelativeTo(getOwner());
         setVisible(true);
     }
     
+    // Hides without dispose(), so the next pause reuses the same native window
+    public void hideMenu() {
+        setVisible(false);
+    }
+    
     private JButton createDialogButton(String text) {
         JButton button = new JButton(text) {
+            private final RenderResources.Text label = new RenderResources.Text(text, RenderResources.DIALOG_BUTTON_FONT);
+            
             @Override
             protected void paintComponent(Graphics g) {
                 Graphics2D g2 = (Graphics2D) g;
                 g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
                 
                 if (getModel().isRollover()) {
-                    g2.setColor(new Color(100, 100, 150, 200));
+                    g2.setColor(RenderResources.DIALOG_BUTTON_ROLLOVER);
                 } else {
-                    g2.setColor(new Color(70, 70, 120, 200));
+                    g2.setColor(RenderResources.DIALOG_BUTTON);
                 }
                 g2.fillRoundRect(0, 0, getWidth(), getHeight(), 15, 15);
                 
                 g2.setColor(Color.WHITE);
-                g2.setFont(new Font("Arial", Font.BOLD, 16));
-                FontMetrics fm = g2.getFontMetrics();
-                int x = (getWidth() - fm.stringWidth(getText())) / 2;
-                int y = (getHeight() + fm.getAscent()) / 2 - 2;
-                g2.drawString(getText(), x, y);
+                label.drawCentered(g2, getWidth(), (getHeight() + label.ascent) / 2 - 2);
             }
         };
         
@@ -103,15 +121,12 @@ public class InGameMenu extends JDialog {
             switch (option) {
                 case "Resume Game":
                     gameManager.resumeGame();
-                    dispose();
                     break;
                 case "Restart Game":
                     gameManager.restartCurrentGame();
-                    dispose();
                     break;
                 case "Main Menu":
                     gameManager.returnToMainMenu();
-                    dispose();
                     break;
                 case "Exit Game":
                     System.exit(0);
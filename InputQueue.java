@@ -0,0 +1,44 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free single-producer/single-consumer queue of key events:
+// the EDT offers from its KeyListener, the game loop drains it at the start of each tick
+public class InputQueue {
+    public interface Handler {
+        void handle(int keyCode, boolean pressed);
+    }
+    
+    private final int[] events;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        events = new int[size];
+        mask = size - 1;
+    }
+    
+    // Returns false (dropping the event) if the loop has fallen a whole buffer behind
+    public boolean offer(int keyCode, boolean pressed) {
+        long t = tail.get();
+        if (t - head.get() == events.length) return false;
+        events[(int) (t & mask)] = (keyCode << 1) | (pressed ? 1 : 0);
+        tail.lazySet(t + 1);
+        return true;
+    }
+    
+    public void drain(Handler handler) {
+        long h = head.get();
+        long t = tail.get();
+        while (h < t) {
+            int event = events[(int) (h & mask)];
+            handler.handle(event >>> 1, (event & 1) != 0);
+            h++;
+        }
+        head.lazySet(h);
+    }
+    
+    public void clear() {
+        head.set(tail.get());
+    }
+}
\ No newline at end of file
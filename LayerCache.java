@@ -0,0 +1,47 @@
+import java.awt.*;
+import java.awt.image.VolatileImage;
+
+public class LayerCache {
+    private final ActiveRenderer.Painter painter;
+    private VolatileImage image;
+    
+    public LayerCache(ActiveRenderer.Painter painter) {
+        this.painter = painter;
+    }
+    
+    // Blits the cached layer, re-rendering it only after a resize or loss of video memory
+    public void draw(Graphics2D g2, int width, int height) {
+        if (width <= 0 || height <= 0) return;
+        GraphicsConfiguration config = g2.getDeviceConfiguration();
+        
+        do {
+            boolean stale = image == null || image.getWidth() != width || image.getHeight() != height;
+            int status = stale ? VolatileImage.IMAGE_INCOMPATIBLE : image.validate(config);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (image != null) {
+                    image.flush();
+                }
+                image = config.createCompatibleVolatileImage(width, height);
+                status = VolatileImage.IMAGE_RESTORED;
+            }
+            if (status == VolatileImage.IMAGE_RESTORED) {
+                Graphics2D ig = image.createGraphics();
+                try {
+                    ig.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    painter.draw(ig, width, height);
+                } finally {
+                    ig.dispose();
+                }
+            }
+            g2.drawImage(image, 0, 0, null);
+        } while (image.contentsLost());
+    }
+    
+    // Drops the cached layer; it is rebuilt on the next draw
+    public void invalidate() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+    }
+}
\ No newline at end of file
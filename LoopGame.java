@@ -0,0 +1,7 @@
+public interface LoopGame {
+    // Advance the simulation by one fixed step
+    void tick();
+    
+    // Present a frame; alpha is how far (0..1) we are between the last tick and the next
+    void render(double alpha);
+}
\ No newline at end of file
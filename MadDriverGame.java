@@ -1,25 +1,38 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
-public class MadDriverGame {
+public class MadDriverGame implements LoopGame, HeadlessGame {
     private GameManager gameManager;
     private MadDriverPanel gamePanel;
-    private Timer gameTimer;
-    private boolean isRunning = false;
-    private boolean isPaused = false;
+    private GameLoop gameLoop;
+    private ActiveRenderer renderer;
+    private GameMetrics metrics;
+    private ReplayRecorder recorder = new ReplayRecorder(GameType.MAD_DRIVER);
+    private InputQueue input = new InputQueue(256);
+    private InputQueue.Handler inputHandler = this::applyInput;
+    private long tickCount = 0;
+    private volatile boolean isRunning = false;
+    private volatile boolean isPaused = false;
+    private volatile boolean isOver = false;
+    
+    // Finished ticks, the only game state the panel reads
+    private SnapshotBuffer<Snapshot> snapshots = new SnapshotBuffer<>(Snapshot::new);
+    // How far the frame being drawn is between the last two ticks, 0..1
+    private volatile double renderAlpha = 1;
     
     // Game variables
     private int playerX = 400;
+    private int previousPlayerX = 400;
     private int playerY = 500;
     private int playerSpeed = 5;
-    private List<Rectangle> obstacles;
+    private int obstacleSpeed = 7;
+    // Obstacles in spawn order: they all fall at the same speed, so the head is always the lowest
+    private RectangleRing obstacles;
+    private int spawnChance = 5; // Percent per tick
+    private EntityPool<Rectangle> obstaclePool = new EntityPool<>(32, Rectangle::new);
     private Random random;
     private int score = 0;
     private int lives = 3;
@@ -31,47 +44,68 @@ public class MadDriverGame {
     public MadDriverGame(GameManager manager) {
         this.gameManager = manager;
         this.gamePanel = new MadDriverPanel();
+        this.renderer = new ActiveRenderer(gamePanel, gamePanel::draw);
         this.random = new Random();
+        this.gameLoop = new GameLoop("Mad Driver", this);
+        this.metrics = new GameMetrics("Mad Driver");
+        gameLoop.setMetrics(metrics);
         initializeGame();
     }
     
     private void initializeGame() {
-        obstacles = new ArrayList<>();
+        obstacles = new RectangleRing(32);
         setupKeyListener();
+        publishSnapshot();
     }
     
     public JPanel getGamePanel() {
         return gamePanel;
     }
     
+    // Paints the current frame onto any surface, e.g. an offscreen image
+    void renderTo(Graphics2D g2, int width, int height) {
+        gamePanel.draw(g2, width, height);
+    }
+    
     public void startGame() {
+        // Every round gets its own seed so it can be replayed exactly
+        long seed = random.nextLong();
+        gameLoop.stop();
+        input.clear();
+        reset(seed);
+        recorder.begin(seed);
+        gameLoop.start();
+        
+        // Ensure focus is requested
+        gamePanel.requestFocusInWindow();
+    }
+    
+    @Override
+    public void reset(long seed) {
+        random.setSeed(seed);
+        resetState();
+    }
+    
+    private void resetState() {
         isRunning = true;
         isPaused = false;
+        isOver = false;
+        tickCount = 0;
         playerX = 400;
+        previousPlayerX = 400;
         playerY = 500;
         score = 0;
         lives = 3;
+        for (int i = 0; i < obstacles.size(); i++) {
+            obstaclePool.release(obstacles.get(i));
+        }
         obstacles.clear();
+        // Back to full size if releaseResources() shrank them while the game was idle
+        obstaclePool.reserve(obstacleCapacity());
+        obstacles.reserve(obstacleCapacity());
         leftPressed = false;
         rightPressed = false;
-        
-        if (gameTimer != null && gameTimer.isRunning()) {
-            gameTimer.stop();
-        }
-        
-        gameTimer = new Timer(16, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (!isPaused) {
-                    updateGame();
-                    gamePanel.repaint();
-                }
-            }
-        });
-        gameTimer.start();
-        
-        // Ensure focus is requested
-        gamePanel.requestFocusInWindow();
+        publishSnapshot();
     }
     
     public void pauseGame() {
@@ -85,13 +119,61 @@ public class MadDriverGame {
     
     public void stopGame() {
         isRunning = false;
-        if (gameTimer != null) {
-            gameTimer.stop();
+        // A running tick may still record input, so the recording is dropped only after the loop has ended
+        gameLoop.stop();
+        recorder.cancel();
+    }
+    
+    // Frees what an idle game holds on to; only call after stopGame(), startGame() rebuilds it all.
+    // The ring, pool and snapshots are replaced, since dense traffic leaves them sized for many obstacles.
+    public void releaseResources() {
+        obstacles = new RectangleRing(32);
+        obstaclePool = new EntityPool<>(32, Rectangle::new);
+        snapshots = new SnapshotBuffer<>(Snapshot::new);
+        publishSnapshot();
+        gamePanel.releaseCaches();
+    }
+    
+    @Override
+    public void tick() {
+        // Nothing is applied or recorded while paused; releases made meanwhile wait for the resume
+        if (!isPaused) {
+            input.drain(inputHandler);
+            updateGame();
+            metrics.setEntityCount(obstacles.size());
+            metrics.setPoolCounts(obstaclePool.getHits(), obstaclePool.getMisses());
+            publishSnapshot();
+        }
+    }
+    
+    // Key events reach the game here, on the loop thread, stamped with the tick they apply to
+    private void applyInput(int keyCode, boolean pressed) {
+        recorder.record(tickCount, keyCode, pressed);
+        if (pressed) {
+            pressKey(keyCode);
+        } else {
+            releaseKey(keyCode);
+        }
+    }
+    
+    private void publishSnapshot() {
+        snapshots.getBack().capture();
+        snapshots.publish();
+    }
+    
+    @Override
+    public void render(double alpha) {
+        // A paused game has no next tick to move towards
+        renderAlpha = isPaused || isOver ? 1 : alpha;
+        if (!renderer.render()) {
+            gamePanel.repaint();
         }
     }
     
     private void updateGame() {
         if (!isRunning) return;
+        tickCount++;
+        previousPlayerX = playerX;
         
         // Handle continuous movement
         if (leftPressed) {
@@ -102,38 +184,100 @@ public class MadDriverGame {
         }
         
         // Spawn obstacles
-        if (random.nextInt(100) < 5) {
+        if (random.nextInt(100) < spawnChance) {
             int obstacleWidth = 50 + random.nextInt(50);
             int obstacleX = random.nextInt(800 - obstacleWidth);
-            obstacles.add(new Rectangle(obstacleX, -50, obstacleWidth, 30));
+            Rectangle obstacle = obstaclePool.obtain();
+            obstacle.setBounds(obstacleX, -50, obstacleWidth, 30);
+            obstacles.add(obstacle);
         }
         
-        // Move obstacles
-        List<Rectangle> obstaclesToRemove = new ArrayList<>();
-        for (Rectangle obstacle : obstacles) {
-            obstacle.y += 7;
-            if (obstacle.y > 600) {
-                obstaclesToRemove.add(obstacle);
-                score += 10;
-            }
-            
-            // Check collision
-            if (obstacle.intersects(playerX - 15, playerY - 25, 30, 50)) {
-                obstaclesToRemove.add(obstacle);
+        // Move obstacles; the ones that left the screen are all at the head
+        for (int i = 0; i < obstacles.size(); i++) {
+            obstacles.get(i).y += obstacleSpeed;
+        }
+        while (!obstacles.isEmpty() && obstacles.getFirst().y > 600) {
+            obstaclePool.release(obstacles.removeFirst());
+            score += 10;
+        }
+        
+        // Check collision, only in the band around the car: skip the few obstacles that were
+        // already below it when the tick started, and stop at the first one still above it
+        // (all obstacles are the same height)
+        int carTop = playerY - 25;
+        int carBottom = playerY + 25;
+        int carDx = playerX - previousPlayerX;
+        int i = 0;
+        while (i < obstacles.size() && obstacles.get(i).y - obstacleSpeed >= carBottom) {
+            i++;
+        }
+        while (i < obstacles.size()) {
+            Rectangle obstacle = obstacles.get(i);
+            if (obstacle.y + obstacle.height <= carTop) break;
+            // Swept test of the obstacle's motion relative to the car, so no speed can skip a hit
+            if (Collisions.sweptBoxes(obstacle.x, obstacle.y - obstacleSpeed, obstacle.width, obstacle.height,
+                                      -carDx, obstacleSpeed, previousPlayerX - 15, carTop, 30, 50)) {
+                obstaclePool.release(obstacles.remove(i));
                 lives--;
                 if (lives <= 0) {
                     gameOver();
+                    break;
                 }
+            } else {
+                i++;
             }
         }
-        obstacles.removeAll(obstaclesToRemove);
     }
     
+    // Percent chance per tick of a new obstacle; the default is 5, denser modes go far higher
+    public void setSpawnChance(int percent) {
+        spawnChance = percent;
+        obstaclePool.reserve(obstacleCapacity());
+        obstacles.reserve(obstacleCapacity());
+    }
+    
+    // Obstacles on screen at once for the spawn chance, with headroom for runs of spawns. At most
+    // one spawns per tick and each falls from y = -50 until it passes 600, which bounds the count.
+    private int obstacleCapacity() {
+        int lifetime = 650 / obstacleSpeed + 1;
+        return Math.max(32, Math.min(lifetime, lifetime * spawnChance / 100 + 16));
+    }
+    
+    @Override
+    public boolean isOver() {
+        return isOver;
+    }
+    
+    @Override
+    public int getScore() {
+        return score;
+    }
+    
+    @Override
+    public void pressKey(int keyCode) {
+        if (keyCode == KeyEvent.VK_LEFT) {
+            leftPressed = true;
+        } else if (keyCode == KeyEvent.VK_RIGHT) {
+            rightPressed = true;
+        }
+    }
+    
+    @Override
+    public void releaseKey(int keyCode) {
+        if (keyCode == KeyEvent.VK_LEFT) {
+            leftPressed = false;
+        } else if (keyCode == KeyEvent.VK_RIGHT) {
+            rightPressed = false;
+        }
+    }
+    
+    
     private void gameOver() {
         isRunning = false;
-        gameTimer.stop();
-        JOptionPane.showMessageDialog(gamePanel, "Game Over! Final Score: " + score);
-        gameManager.showMainMenu();
+        isOver = true;
+        recorder.finish(tickCount, score);
+        // The loop keeps running so the panel can draw the game-over screen;
+        // the key listener on the EDT leaves it through the game manager
     }
     
     private void setupKeyListener() {
@@ -145,24 +289,30 @@ public class MadDriverGame {
             
             @Override
             public void keyPressed(KeyEvent e) {
-                System.out.println("Key pressed: " + e.getKeyCode()); // Debug
-                
-                if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                if (isOver) {
+                    // Game-over screen: ENTER plays again, ESC goes back to the menu
+                    if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                        gameManager.restartCurrentGame();
+                    } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        gameManager.returnToMainMenu();
+                    }
+                } else if (isPaused) {
+                    // The pause menu is up: ESC closes it, every other key is ignored
+                    if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        gameManager.resumeGame();
+                    }
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                     gameManager.showInGameMenu();
-                } else if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-                    leftPressed = true;
-                } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                    rightPressed = true;
+                } else if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    metrics.toggleOverlay();
+                } else {
+                    input.offer(e.getKeyCode(), true);
                 }
             }
             
             @Override
             public void keyReleased(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-                    leftPressed = false;
-                } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                    rightPressed = false;
-                }
+                input.offer(e.getKeyCode(), false);
             }
         });
         
@@ -174,56 +324,143 @@ public class MadDriverGame {
         });
     }
     
+    // Copy of everything the panel draws, refilled in place at the end of a tick
+    class Snapshot {
+        int playerX, playerY;
+        int previousPlayerX;
+        int score, lives;
+        boolean over;
+        int obstacleCount;
+        int[] obstacleX = new int[32];
+        int[] obstacleY = new int[32];
+        int[] obstacleWidth = new int[32];
+        int[] obstacleHeight = new int[32];
+        
+        void capture() {
+            playerX = MadDriverGame.this.playerX;
+            playerY = MadDriverGame.this.playerY;
+            previousPlayerX = MadDriverGame.this.previousPlayerX;
+            score = MadDriverGame.this.score;
+            over = isOver;
+            lives = MadDriverGame.this.lives;
+            obstacleCount = obstacles.size();
+            if (obstacleX.length < obstacleCount) {
+                int capacity = Math.max(obstacleCount, obstacleX.length * 2);
+                obstacleX = new int[capacity];
+                obstacleY = new int[capacity];
+                obstacleWidth = new int[capacity];
+                obstacleHeight = new int[capacity];
+            }
+            for (int i = 0; i < obstacleCount; i++) {
+                Rectangle obstacle = obstacles.get(i);
+                obstacleX[i] = obstacle.x;
+                obstacleY[i] = obstacle.y;
+                obstacleWidth[i] = obstacle.width;
+                obstacleHeight[i] = obstacle.height;
+            }
+        }
+    }
+    
     class MadDriverPanel extends JPanel {
+        private LayerCache background = new LayerCache(this::drawBackground);
+        private SpriteAtlas sprites = new SpriteAtlas(64);
+        private int carSprite;
+        
+        // HUD text is pre-rendered; only the digits of the score change from frame to frame
+        private final HudText hud = new HudText(RenderResources.SMALL_SCORE_FONT, Color.WHITE);
+        private final int scoreLabel = hud.addLine("Score: ", RenderResources.SMALL_SCORE_FONT, Color.WHITE);
+        private final int livesLabel = hud.addLine("Lives: ", RenderResources.SMALL_SCORE_FONT, Color.WHITE);
+        private final int hintLine = hud.addLine("Use LEFT/RIGHT arrows to move, ESC for menu, F3 for stats", RenderResources.HINT_FONT, Color.WHITE);
+        private final int secondHintLine = hud.addLine("Click on the game area if keys don't work", RenderResources.HINT_FONT, Color.WHITE);
+        private final int pausedLine = hud.addLine("PAUSED", RenderResources.PAUSE_FONT, Color.YELLOW);
+        private final int gameOverLine = hud.addLine("GAME OVER", RenderResources.PAUSE_FONT, Color.YELLOW);
+        private final int finalScoreLabel = hud.addLine("Final Score: ", RenderResources.SMALL_SCORE_FONT, Color.WHITE);
+        private final int restartLine = hud.addLine("Press ENTER to play again or ESC for the menu", RenderResources.HINT_FONT, Color.WHITE);
+        
+        // Drops the cached images; they are rendered again on the next draw
+        void releaseCaches() {
+            background.invalidate();
+            sprites.release();
+            hud.release();
+        }
+        
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            
+            // Once the loop renders to its own canvas, painting here too would race with it
+            if (renderer.isActive()) return;
+            draw((Graphics2D) g, getWidth(), getHeight());
+        }
+        
+        private void drawBackground(Graphics2D g2, int width, int height) {
             // Draw road background
             g2.setColor(Color.DARK_GRAY);
-            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.fillRect(0, 0, width, height);
             
             // Draw road markings
             g2.setColor(Color.YELLOW);
-            for (int i = 0; i < getHeight(); i += 40) {
-                g2.fillRect(getWidth()/2 - 5, i, 10, 20);
+            for (int i = 0; i < height; i += 40) {
+                g2.fillRect(width/2 - 5, i, 10, 20);
             }
-            
-            // Draw player car
+        }
+        
+        private void drawCar(Graphics2D g2, int width, int height) {
             g2.setColor(Color.RED);
-            g2.fillRect(playerX - 15, playerY - 25, 30, 50);
+            g2.fillRect(0, 0, width, height);
             g2.setColor(Color.YELLOW);
-            g2.fillRect(playerX - 12, playerY - 22, 24, 10);
-            g2.fillRect(playerX - 12, playerY - 5, 24, 10);
+            g2.fillRect(3, 3, 24, 10);
+            g2.fillRect(3, 20, 24, 10);
+        }
+        
+        void draw(Graphics2D g2, int width, int height) {
+            long paintStart = System.nanoTime();
+            Snapshot frame = snapshots.getFront();
+            double alpha = renderAlpha;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            
+            // Static scenery is rendered once and blitted every frame
+            background.draw(g2, width, height);
+            
+            // Draw player car
+            if (sprites.find(0) < 0) {
+                carSprite = sprites.add(0, 30, 50, 1, this::drawCar);
+            }
+            int carX = frame.previousPlayerX + (int) Math.round((frame.playerX - frame.previousPlayerX) * alpha);
+            sprites.draw(g2, carSprite, carX - 15, frame.playerY - 25);
             
             // Draw obstacles
+            // Every obstacle moved down by the same step last tick, so its previous y is implied
             g2.setColor(Color.BLUE);
-            for (Rectangle obstacle : obstacles) {
-                g2.fillRect(obstacle.x, obstacle.y, obstacle.width, obstacle.height);
+            int lag = (int) Math.round(obstacleSpeed * (1 - alpha));
+            for (int i = 0; i < frame.obstacleCount; i++) {
+                g2.fillRect(frame.obstacleX[i], frame.obstacleY[i] - lag, frame.obstacleWidth[i], frame.obstacleHeight[i]);
             }
             
             // Draw score and lives
-            g2.setColor(Color.WHITE);
-            g2.setFont(new Font("Arial", Font.BOLD, 20));
-            g2.drawString("Score: " + score, 20, 30);
-            g2.drawString("Lives: " + lives, 20, 60);
+            hud.drawLabelled(g2, scoreLabel, frame.score, 20, 30);
+            hud.drawLabelled(g2, livesLabel, frame.lives, 20, 60);
             
             // Draw controls hint
-            g2.setFont(new Font("Arial", Font.PLAIN, 14));
-            g2.drawString("Use LEFT/RIGHT arrows to move, ESC for menu", 20, getHeight() - 20);
-            g2.drawString("Click on the game area if keys don't work", 20, getHeight() - 40);
+            hud.drawLine(g2, hintLine, 20, height - 20);
+            hud.drawLine(g2, secondHintLine, 20, height - 40);
             
             if (isPaused) {
-                g2.setColor(new Color(0, 0, 0, 150));
-                g2.fillRect(0, 0, getWidth(), getHeight());
-                g2.setColor(Color.YELLOW);
-                g2.setFont(new Font("Arial", Font.BOLD, 36));
-                String pauseText = "PAUSED";
-                int textWidth = g2.getFontMetrics().stringWidth(pauseText);
-                g2.drawString(pauseText, (getWidth() - textWidth) / 2, getHeight() / 2);
+                g2.setColor(RenderResources.PAUSE_SHADE);
+                g2.fillRect(0, 0, width, height);
+                hud.drawCentered(g2, pausedLine, width, height / 2);
             }
+            
+            if (frame.over) {
+                g2.setColor(RenderResources.PAUSE_SHADE);
+                g2.fillRect(0, 0, width, height);
+                hud.drawCentered(g2, gameOverLine, width, height / 2 - 30);
+                int scoreWidth = hud.getWidth(finalScoreLabel) + hud.getNumberWidth(frame.score);
+                hud.drawLabelled(g2, finalScoreLabel, frame.score, (width - scoreWidth) / 2, height / 2 + 10);
+                hud.drawCentered(g2, restartLine, width, height / 2 + 45);
+            }
+            
+            metrics.drawOverlay(g2, width);
+            metrics.recordFrame(System.nanoTime() - paintStart);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+public class ParallelPhysics {
+    // Below this many balls per task, splitting further costs more than it saves
+    private static final int MIN_BALLS_PER_TASK = 1024;
+    
+    private final ForkJoinPool pool;
+    
+    public ParallelPhysics(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+    
+    // Same result as steer() followed by integrate(), since every ball only reads and writes its own slot
+    public void steerAndIntegrate(BallStore balls, double targetX, double targetY,
+                                  double speed, double avoidDistance, double friction) {
+        int size = balls.size;
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, size / MIN_BALLS_PER_TASK));
+        forEach(chunks, chunk -> {
+            int from = (int) ((long) size * chunk / chunks);
+            int to = (int) ((long) size * (chunk + 1) / chunks);
+            balls.steer(targetX, targetY, speed, avoidDistance, from, to);
+            balls.integrate(friction, from, to);
+        });
+    }
+    
+    // Same result as grid.forEachPair(visitor): rows are searched on all threads and pairs spanning
+    // three or more rows are resolved on this one, in forEachPair's order. Each stripe pass is then
+    // resolved in parallel, since its stripes share no enemies and each keeps forEachPair's order.
+    public void resolvePairs(SpatialHashGrid grid, SpatialHashGrid.PairVisitor visitor) {
+        forEach(grid.getRows(), grid::collectPairsInRow);
+        grid.forEachCollectedSpanningPair(visitor);
+        forEach(grid.getStripes(), stripe -> grid.forEachCollectedPairInStripe(false, stripe, visitor));
+        forEach(grid.getStripes(), stripe -> grid.forEachCollectedPairInStripe(true, stripe, visitor));
+    }
+    
+    private void forEach(int count, IntConsumer body) {
+        if (count <= 0) return;
+        pool.invoke(new RangeTask(0, count, body));
+    }
+    
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final int from, to;
+        private final IntConsumer body;
+        
+        RangeTask(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, body), new RangeTask(mid, to, body));
+        }
+    }
+}
\ No newline at end of file
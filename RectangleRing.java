@@ -0,0 +1,87 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+// FIFO of rectangles in a circular array: adding at the tail and removing at the head are O(1)
+// and never shift or allocate. Index 0 is always the oldest element.
+public class RectangleRing {
+    private Rectangle[] items;
+    private int mask;
+    private int head = 0;
+    private int size = 0;
+    
+    public RectangleRing(int capacity) {
+        int length = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        items = new Rectangle[length];
+        mask = length - 1;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public Rectangle get(int i) {
+        return items[(head + i) & mask];
+    }
+    
+    public Rectangle getFirst() {
+        return items[head];
+    }
+    
+    public Rectangle getLast() {
+        return items[(head + size - 1) & mask];
+    }
+    
+    public void reserve(int capacity) {
+        while (items.length < capacity) {
+            grow();
+        }
+    }
+    
+    // Grows only if more rectangles are live at once than ever before
+    public void add(Rectangle item) {
+        if (size == items.length) {
+            grow();
+        }
+        items[(head + size) & mask] = item;
+        size++;
+    }
+    
+    public Rectangle removeFirst() {
+        Rectangle item = items[head];
+        items[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        return item;
+    }
+    
+    // Removes from the middle by shifting the older elements up one slot, so it costs O(i);
+    // afterwards the element that followed it is at index i
+    public Rectangle remove(int i) {
+        Rectangle item = get(i);
+        for (int j = i; j > 0; j--) {
+            items[(head + j) & mask] = items[(head + j - 1) & mask];
+        }
+        removeFirst();
+        return item;
+    }
+    
+    public void clear() {
+        Arrays.fill(items, null);
+        head = 0;
+        size = 0;
+    }
+    
+    private void grow() {
+        Rectangle[] grown = new Rectangle[items.length * 2];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        items = grown;
+        mask = grown.length - 1;
+        head = 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Fonts, strokes, colours and measured text used while painting, created once instead of on every frame.
+// All of these are immutable, so they are shared between the EDT and the game loop threads.
+public final class RenderResources {
+    // Menus
+    public static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 48);
+    public static final Font CREDIT_FONT = new Font("Arial", Font.ITALIC, 16);
+    public static final Font MENU_BUTTON_FONT = new Font("Arial", Font.BOLD, 20);
+    public static final Font DIALOG_TITLE_FONT = new Font("Arial", Font.BOLD, 24);
+    public static final Font DIALOG_BUTTON_FONT = new Font("Arial", Font.BOLD, 16);
+    
+    // In-game text
+    public static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 24);
+    public static final Font SMALL_SCORE_FONT = new Font("Arial", Font.BOLD, 20);
+    public static final Font HINT_FONT = new Font("Arial", Font.PLAIN, 14);
+    public static final Font PAUSE_FONT = new Font("Arial", Font.BOLD, 36);
+    public static final Font OVERLAY_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    
+    public static final BasicStroke THIN_STROKE = new BasicStroke(2);
+    public static final BasicStroke MEDIUM_STROKE = new BasicStroke(3);
+    public static final BasicStroke THICK_STROKE = new BasicStroke(5);
+    
+    public static final Color MENU_TOP = new Color(30, 30, 50);
+    public static final Color MENU_BOTTOM = new Color(20, 20, 40);
+    public static final Color BUTTON_TOP = new Color(70, 70, 120);
+    public static final Color BUTTON_BOTTOM = new Color(50, 50, 100);
+    public static final Color BUTTON_ROLLOVER_TOP = new Color(100, 100, 180);
+    public static final Color BUTTON_ROLLOVER_BOTTOM = new Color(70, 70, 150);
+    public static final Color BUTTON_BORDER = new Color(255, 255, 255, 100);
+    public static final Color DIALOG_BACKGROUND = new Color(0, 0, 0, 200);
+    public static final Color DIALOG_BUTTON = new Color(70, 70, 120, 200);
+    public static final Color DIALOG_BUTTON_ROLLOVER = new Color(100, 100, 150, 200);
+    
+    public static final Color PAUSE_SHADE = new Color(0, 0, 0, 150);
+    public static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 170);
+    
+    public static final Color SKY_TOP = new Color(135, 206, 235);
+    public static final Color SKY_BOTTOM = new Color(100, 150, 255);
+    public static final Color GROUND = new Color(34, 139, 34);
+    public static final Color PIPE = new Color(0, 150, 0);
+    public static final Color PIPE_RIM = new Color(0, 100, 0);
+    
+    public static final Color ARENA_TOP = new Color(50, 50, 80);
+    public static final Color ARENA_BOTTOM = new Color(30, 30, 50);
+    public static final Color ARENA_FLOOR = new Color(200, 200, 220);
+    public static final Color ARENA_EDGE = new Color(100, 100, 120);
+    public static final Color ARENA_CENTER = new Color(150, 150, 170);
+    // Sumo enemies: bit 2 picks a dark or light red channel, bit 1 green and bit 0 blue
+    public static final Color[] ENEMY_BALLS = new Color[8];
+    
+    // Text is measured against an antialiased scratch image, the same way the panels draw it
+    private static final Graphics2D MEASURE;
+    
+    static {
+        MEASURE = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        MEASURE.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        for (int i = 0; i < ENEMY_BALLS.length; i++) {
+            ENEMY_BALLS[i] = new Color((i & 4) != 0 ? 150 : 50, (i & 2) != 0 ? 150 : 50, (i & 1) != 0 ? 150 : 50);
+        }
+    }
+    
+    private RenderResources() {
+    }
+    
+    public static synchronized FontMetrics getMetrics(Font font) {
+        return MEASURE.getFontMetrics(font);
+    }
+    
+    // A fixed string in a fixed font, measured once
+    public static final class Text {
+        public final String value;
+        public final Font font;
+        public final int width;
+        public final int ascent;
+        
+        public Text(String value, Font font) {
+            this.value = value;
+            this.font = font;
+            FontMetrics metrics = getMetrics(font);
+            this.width = metrics.stringWidth(value);
+            this.ascent = metrics.getAscent();
+        }
+        
+        public void draw(Graphics2D g2, int x, int y) {
+            g2.setFont(font);
+            g2.drawString(value, x, y);
+        }
+        
+        // Centred horizontally within [0, areaWidth)
+        public void drawCentered(Graphics2D g2, int areaWidth, int y) {
+            draw(g2, (areaWidth - width) / 2, y);
+        }
+    }
+    
+    // A two-colour gradient that is only rebuilt when the area it spans changes size.
+    // Not thread-safe: give each painting thread its own instance.
+    public static final class Gradient {
+        private final Color from;
+        private final Color to;
+        private final boolean diagonal;
+        private GradientPaint paint;
+        private int width = -1;
+        private int height = -1;
+        
+        // Top to bottom, or top-left to bottom-right when diagonal
+        public Gradient(Color from, Color to, boolean diagonal) {
+            this.from = from;
+            this.to = to;
+            this.diagonal = diagonal;
+        }
+        
+        public Paint get(int width, int height) {
+            if (height != this.height || (diagonal && width != this.width)) {
+                paint = new GradientPaint(0, 0, from, diagonal ? width : 0, height, to);
+                this.width = width;
+                this.height = height;
+            }
+            return paint;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+import java.io.*;
+import java.util.Arrays;
+
+public class Replay {
+    private static final int MAGIC = 0x54494F52; // "TIOR"
+    private static final int VERSION = 1;
+    
+    private final GameType gameType;
+    private final long seed;
+    
+    // Input events, in tick order; an event at tick t is applied before tick t runs
+    private long[] eventTicks = new long[64];
+    private int[] eventKeys = new int[64];
+    private boolean[] eventPressed = new boolean[64];
+    private int eventCount = 0;
+    
+    private long endTick = -1;
+    private int finalScore = 0;
+    
+    public Replay(GameType gameType, long seed) {
+        this.gameType = gameType;
+        this.seed = seed;
+    }
+    
+    public GameType getGameType() {
+        return gameType;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public long getEndTick() {
+        return endTick;
+    }
+    
+    public int getFinalScore() {
+        return finalScore;
+    }
+    
+    public int getEventCount() {
+        return eventCount;
+    }
+    
+    public void addEvent(long tick, int keyCode, boolean pressed) {
+        if (eventCount == eventTicks.length) {
+            int capacity = eventCount * 2;
+            eventTicks = Arrays.copyOf(eventTicks, capacity);
+            eventKeys = Arrays.copyOf(eventKeys, capacity);
+            eventPressed = Arrays.copyOf(eventPressed, capacity);
+        }
+        eventTicks[eventCount] = tick;
+        eventKeys[eventCount] = keyCode;
+        eventPressed[eventCount] = pressed;
+        eventCount++;
+    }
+    
+    public void finish(long tick, int score) {
+        endTick = tick;
+        finalScore = score;
+    }
+    
+    // Runs the whole session through the game's update path as fast as possible, returns the score
+    public int play(HeadlessGame game) {
+        game.reset(seed);
+        int next = 0;
+        for (long tick = 0; tick < endTick && !game.isOver(); tick++) {
+            while (next < eventCount && eventTicks[next] == tick) {
+                if (eventPressed[next]) {
+                    game.pressKey(eventKeys[next]);
+                } else {
+                    game.releaseKey(eventKeys[next]);
+                }
+                next++;
+            }
+            game.tick();
+        }
+        return game.getScore();
+    }
+    
+    // Format: header, then per event a varint tick delta, varint key code and pressed flag
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(gameType.ordinal());
+        data.writeLong(seed);
+        writeVarLong(data, endTick);
+        writeVarLong(data, finalScore);
+        writeVarLong(data, eventCount);
+        long previous = 0;
+        for (int i = 0; i < eventCount; i++) {
+            writeVarLong(data, eventTicks[i] - previous);
+            writeVarLong(data, eventKeys[i]);
+            data.writeBoolean(eventPressed[i]);
+            previous = eventTicks[i];
+        }
+        data.flush();
+    }
+    
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        GameType type = GameType.values()[data.readUnsignedByte()];
+        Replay replay = new Replay(type, data.readLong());
+        long endTick = readVarLong(data);
+        int score = (int) readVarLong(data);
+        long count = readVarLong(data);
+        long tick = 0;
+        for (long i = 0; i < count; i++) {
+            tick += readVarLong(data);
+            int key = (int) readVarLong(data);
+            replay.addEvent(tick, key, data.readBoolean());
+        }
+        replay.finish(endTick, score);
+        return replay;
+    }
+    
+    public void save(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+    
+    public static Replay load(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        }
+    }
+    
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+import java.io.File;
+import java.io.IOException;
+
+public class ReplayPlayer {
+    // Usage: java -Djava.awt.headless=true ReplayPlayer <file.replay> [repeat]
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayPlayer <file.replay> [repeat]");
+            System.exit(1);
+        }
+        Replay replay = Replay.load(new File(args[0]));
+        int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        HeadlessGame game = HeadlessSimulator.createGame(replay.getGameType());
+        
+        System.out.printf("%s replay: seed %d, %d ticks, %d input events, recorded score %d%n",
+                replay.getGameType(), replay.getSeed(), replay.getEndTick(),
+                replay.getEventCount(), replay.getFinalScore());
+        
+        // Repeated runs replay the identical session, e.g. for attaching a profiler
+        for (int run = 1; run <= repeat; run++) {
+            long start = System.nanoTime();
+            int score = replay.play(game);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double realTime = replay.getEndTick() / (double) GameLoop.DEFAULT_TICK_RATE;
+            System.out.printf("Run %d: score %d (%s), %.3f s, %.0fx real time%n", run, score,
+                    score == replay.getFinalScore() ? "matches" : "MISMATCH", seconds, realTime / seconds);
+        }
+    }
+}
\ No newline at end of file
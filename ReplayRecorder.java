@@ -0,0 +1,50 @@
+import java.io.File;
+import java.io.IOException;
+
+public class ReplayRecorder {
+    // -Dgame.replayDir=<dir> saves every finished round there
+    private static final String REPLAY_DIR = System.getProperty("game.replayDir");
+    
+    private final GameType gameType;
+    private Replay replay;
+    private Replay lastReplay;
+    
+    public ReplayRecorder(GameType gameType) {
+        this.gameType = gameType;
+    }
+    
+    public void begin(long seed) {
+        replay = new Replay(gameType, seed);
+    }
+    
+    public void record(long tick, int keyCode, boolean pressed) {
+        if (replay != null) {
+            replay.addEvent(tick, keyCode, pressed);
+        }
+    }
+    
+    public void finish(long tick, int score) {
+        if (replay == null) return;
+        replay.finish(tick, score);
+        lastReplay = replay;
+        replay = null;
+        
+        if (REPLAY_DIR != null) {
+            File file = new File(REPLAY_DIR, gameType.name().toLowerCase() + "-" + System.currentTimeMillis() + ".replay");
+            try {
+                lastReplay.save(file);
+            } catch (IOException e) {
+                System.err.println("Could not save replay " + file + ": " + e);
+            }
+        }
+    }
+    
+    // Abandons the round in progress, e.g. when the player quits to the menu
+    public void cancel() {
+        replay = null;
+    }
+    
+    public Replay getLastReplay() {
+        return lastReplay;
+    }
+}
\ No newline at end of file
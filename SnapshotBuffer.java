@@ -0,0 +1,39 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Triple buffer between the thread that simulates and the thread that draws: the writer
+// fills its back buffer and publishes it, the reader always gets the newest published one.
+// Neither side blocks or allocates, and a buffer is never written while it is being read.
+public class SnapshotBuffer<T> {
+    // Set in the shared slot when it holds a buffer the reader has not taken yet
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+    
+    private final Object[] buffers;
+    private final AtomicInteger shared = new AtomicInteger(1);
+    private int back = 0;  // Only touched by the writer
+    private int front = 2; // Only touched by the reader
+    
+    public SnapshotBuffer(Supplier<T> factory) {
+        buffers = new Object[] {factory.get(), factory.get(), factory.get()};
+    }
+    
+    // The buffer the writer may fill; its contents are whatever it held two publishes ago
+    @SuppressWarnings("unchecked")
+    public T getBack() {
+        return (T) buffers[back];
+    }
+    
+    public void publish() {
+        back = shared.getAndSet(back | FRESH) & INDEX;
+    }
+    
+    // The newest published buffer; stays valid until the reader calls this again
+    @SuppressWarnings("unchecked")
+    public T getFront() {
+        if ((shared.get() & FRESH) != 0) {
+            front = shared.getAndSet(front) & INDEX;
+        }
+        return (T) buffers[front];
+    }
+}
\ No newline at end of file
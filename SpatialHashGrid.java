@@ -0,0 +1,294 @@
+import java.util.Arrays;
+
+public class SpatialHashGrid {
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    
+    // An entry is a box and goes into every cell it covers. A pair of boxes is only reported in the
+    // cell holding the top-left corner of their overlap: the cell where one of them starts in both
+    // directions, or where one starts its column and the other its row. So each cell's slice is split
+    // into four groups by where the box starts, and only pairs between matching groups are tested.
+    private static final int STARTS_COLUMN = 1;
+    private static final int STARTS_ROW = 2;
+    private static final int GROUPS = 4;
+    
+    // Slots are bucketed by a counting sort on (cell, group), so each group is a contiguous slice
+    private final int[] groupStart;
+    private final int[] groupFill;
+    private double[] minX = new double[64];
+    private double[] minY = new double[64];
+    private double[] maxX = new double[64];
+    private double[] maxY = new double[64];
+    private int[] firstCol = new int[64];
+    private int[] lastCol = new int[64];
+    private int[] firstRow = new int[64];
+    private int[] lastRow = new int[64];
+    private int count = 0;
+    
+    // Per slot: the entry and a copy of its box, so the pair loops read memory in order
+    private int[] sorted = new int[64];
+    private double[] slotMinX = new double[64];
+    private double[] slotMinY = new double[64];
+    private double[] slotMaxX = new double[64];
+    private double[] slotMaxY = new double[64];
+    private int[] slotFirstRow = new int[64];
+    private int[] slotLastRow = new int[64];
+    
+    // Pairs are resolved in three passes. Pairs spanning three or more rows go first, row by row.
+    // Then come pairs whose boxes lie within rows 2k and 2k+1, then those within rows 2k+1 and 2k+2.
+    // No box is in two stripes of one pass, so the stripes of a pass can be resolved in parallel.
+    private static final int SPANNING = 0;
+    private static final int EVEN_STRIPES = 1;
+    private static final int ODD_STRIPES = 2;
+    private static final int PASSES = 3;
+    
+    // Pairs found by collectPairsInRow, one collector per row so rows can be searched in parallel
+    private final PairCollector[] rowPairs;
+    
+    public interface PairVisitor {
+        void visit(int a, int b);
+    }
+    
+    public SpatialHashGrid(double originX, double originY, double width, double height, double cellSize) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.groupStart = new int[cols * rows * GROUPS + 1];
+        this.groupFill = new int[cols * rows * GROUPS];
+        this.rowPairs = new PairCollector[rows];
+        for (int row = 0; row < rows; row++) {
+            rowPairs[row] = new PairCollector();
+        }
+    }
+    
+    public void begin(int entryCount) {
+        if (minX.length < entryCount) {
+            int capacity = Math.max(entryCount, minX.length * 2);
+            minX = new double[capacity];
+            minY = new double[capacity];
+            maxX = new double[capacity];
+            maxY = new double[capacity];
+            firstCol = new int[capacity];
+            lastCol = new int[capacity];
+            firstRow = new int[capacity];
+            lastRow = new int[capacity];
+        }
+        count = entryCount;
+        Arrays.fill(groupStart, 0);
+    }
+    
+    public void set(int index, double minX, double minY, double maxX, double maxY) {
+        this.minX[index] = minX;
+        this.minY[index] = minY;
+        this.maxX[index] = maxX;
+        this.maxY[index] = maxY;
+        // Clamping keeps stray boxes in the border cells; it never separates overlapping boxes
+        int col0 = col(minX);
+        int col1 = col(maxX);
+        int row0 = row(minY);
+        int row1 = row(maxY);
+        firstCol[index] = col0;
+        lastCol[index] = col1;
+        firstRow[index] = row0;
+        lastRow[index] = row1;
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0; col <= col1; col++) {
+                groupStart[group(index, row, col) + 1]++;
+            }
+        }
+    }
+    
+    public void finish() {
+        for (int g = 0; g < cols * rows * GROUPS; g++) {
+            groupStart[g + 1] += groupStart[g];
+            groupFill[g] = groupStart[g];
+        }
+        int total = groupStart[cols * rows * GROUPS];
+        if (sorted.length < total) {
+            int capacity = Math.max(total, sorted.length * 2);
+            sorted = new int[capacity];
+            slotMinX = new double[capacity];
+            slotMinY = new double[capacity];
+            slotMaxX = new double[capacity];
+            slotMaxY = new double[capacity];
+            slotFirstRow = new int[capacity];
+            slotLastRow = new int[capacity];
+        }
+        for (int i = 0; i < count; i++) {
+            for (int row = firstRow[i]; row <= lastRow[i]; row++) {
+                for (int col = firstCol[i]; col <= lastCol[i]; col++) {
+                    int slot = groupFill[group(i, row, col)]++;
+                    sorted[slot] = i;
+                    slotMinX[slot] = minX[i];
+                    slotMinY[slot] = minY[i];
+                    slotMaxX[slot] = maxX[i];
+                    slotMaxY[slot] = maxY[i];
+                    slotFirstRow[slot] = firstRow[i];
+                    slotLastRow[slot] = lastRow[i];
+                }
+            }
+        }
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    // Stripes per pass of forEachCollectedPairInStripe
+    public int getStripes() {
+        return (rows + 1) / 2;
+    }
+    
+    // Visits every pair of overlapping boxes exactly once, in the order parallel callers resolve them.
+    // Spanning pairs come first, so they are visited while searching and only stripe pairs are stored.
+    public void forEachPair(PairVisitor visitor) {
+        for (int row = 0; row < rows; row++) {
+            collectPairsInRow(row, visitor);
+        }
+        for (int stripe = 0; stripe < getStripes(); stripe++) {
+            forEachCollectedPairInStripe(false, stripe, visitor);
+        }
+        for (int stripe = 0; stripe < getStripes(); stripe++) {
+            forEachCollectedPairInStripe(true, stripe, visitor);
+        }
+    }
+    
+    // Pairs whose overlap starts in this row. Only reads the grid, so rows can be searched in parallel.
+    public void forEachPairInRow(int row, PairVisitor visitor) {
+        searchRow(row, visitor, null);
+    }
+    
+    // Hands each pair of the row to the collector if there is one, else to the visitor
+    private void searchRow(int row, PairVisitor visitor, PairCollector collector) {
+        for (int col = 0; col < cols; col++) {
+            int base = (row * cols + col) * GROUPS;
+            int columnStarts = groupStart[base + STARTS_COLUMN];
+            int rowStarts = groupStart[base + STARTS_ROW];
+            int bothStart = groupStart[base + (STARTS_COLUMN | STARTS_ROW)];
+            int end = groupStart[base + GROUPS];
+            
+            // Boxes starting here pair with each other and with every other box in the cell
+            for (int i = bothStart; i < end; i++) {
+                visitOverlapping(visitor, collector, i, i + 1, end);
+                visitOverlapping(visitor, collector, i, groupStart[base], bothStart);
+            }
+            // A box starting this column pairs with one starting this row
+            for (int i = columnStarts; i < rowStarts; i++) {
+                visitOverlapping(visitor, collector, i, rowStarts, bothStart);
+            }
+        }
+    }
+    
+    // Visits slot i with each slot in [from, to) whose box overlaps it
+    private void visitOverlapping(PairVisitor visitor, PairCollector collector, int i, int from, int to) {
+        double x0 = slotMinX[i];
+        double y0 = slotMinY[i];
+        double x1 = slotMaxX[i];
+        double y1 = slotMaxY[i];
+        int row0 = slotFirstRow[i];
+        int row1 = slotLastRow[i];
+        for (int j = from; j < to; j++) {
+            if (x0 < slotMaxX[j] & slotMinX[j] < x1 & y0 < slotMaxY[j] & slotMinY[j] < y1) {
+                if (collector == null) {
+                    visitor.visit(sorted[i], sorted[j]);
+                } else {
+                    collector.add(sorted[i], sorted[j], Math.min(row0, slotFirstRow[j]), Math.max(row1, slotLastRow[j]));
+                }
+            }
+        }
+    }
+    
+    // Stores the row's pairs, sorted into passes, for the forEachCollected methods
+    public void collectPairsInRow(int row) {
+        collectPairsInRow(row, null);
+    }
+    
+    // Like collectPairsInRow(row), but spanning pairs go straight to the visitor instead of being stored
+    private void collectPairsInRow(int row, PairVisitor spanning) {
+        PairCollector pairs = rowPairs[row];
+        for (PairList list : pairs.passes) {
+            list.count = 0;
+        }
+        pairs.spanning = spanning;
+        searchRow(row, null, pairs);
+    }
+    
+    // Pairs of one stripe of the even or odd pass, after the spanning pairs. Stripes of a pass touch
+    // disjoint boxes, so they can be resolved in parallel.
+    public void forEachCollectedPairInStripe(boolean odd, int stripe, PairVisitor visitor) {
+        int pass = odd ? ODD_STRIPES : EVEN_STRIPES;
+        int firstRow = odd ? stripe * 2 + 1 : stripe * 2;
+        for (int row = firstRow; row <= firstRow + 1 && row < rows; row++) {
+            rowPairs[row].passes[pass].visitAll(visitor);
+        }
+    }
+    
+    // Pairs spanning three or more rows, before both stripe passes
+    public void forEachCollectedSpanningPair(PairVisitor visitor) {
+        for (int row = 0; row < rows; row++) {
+            rowPairs[row].passes[SPANNING].visitAll(visitor);
+        }
+    }
+    
+    private int group(int index, int row, int col) {
+        int group = (col == firstCol[index] ? STARTS_COLUMN : 0) | (row == firstRow[index] ? STARTS_ROW : 0);
+        return (row * cols + col) * GROUPS + group;
+    }
+    
+    private int col(double x) {
+        return Math.min(cols - 1, Math.max(0, (int) Math.floor((x - originX) / cellSize)));
+    }
+    
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((y - originY) / cellSize)));
+    }
+    
+    // Sorts a row's pairs by the rows their two boxes cover
+    private static class PairCollector {
+        final PairList[] passes = new PairList[PASSES];
+        PairVisitor spanning;
+        
+        PairCollector() {
+            for (int pass = 0; pass < PASSES; pass++) {
+                passes[pass] = new PairList();
+            }
+        }
+        
+        // low and high are the first and last rows covered by the two boxes together
+        void add(int a, int b, int low, int high) {
+            if (high - low > 1) {
+                if (spanning != null) {
+                    spanning.visit(a, b);
+                } else {
+                    passes[SPANNING].add(a, b);
+                }
+            } else {
+                passes[high > low && (low & 1) != 0 ? ODD_STRIPES : EVEN_STRIPES].add(a, b);
+            }
+        }
+    }
+    
+    private static class PairList {
+        int[] items = new int[64];
+        int count = 0;
+        
+        void add(int a, int b) {
+            if (count + 2 > items.length) {
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+            items[count++] = a;
+            items[count++] = b;
+        }
+        
+        void visitAll(PairVisitor visitor) {
+            for (int k = 0; k < count; k += 2) {
+                visitor.visit(items[k], items[k + 1]);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+public class SpriteAtlas {
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    private final int size;
+    private BufferedImage image;
+    
+    // Shelf packing: sprites are placed left to right on rows as tall as their tallest sprite
+    private int shelfX, shelfY, shelfHeight;
+    
+    // Sprite regions, indexed by sprite id
+    private int[] spriteX = new int[64];
+    private int[] spriteY = new int[64];
+    private int[] spriteWidth = new int[64];
+    private int[] spriteHeight = new int[64];
+    private int[] spritePad = new int[64];
+    private int spriteCount = 0;
+    
+    // Open-addressing key -> sprite id table, so lookups never box
+    private long[] keys = new long[256];
+    private int[] ids = new int[256];
+    
+    // Set once a sprite did not fit; nothing more is added until clear(), so a scene with more
+    // distinct sprites than fit never throws away and re-renders the whole atlas
+    private boolean full = false;
+    
+    public SpriteAtlas(int size) {
+        this.size = size;
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    // Returns the sprite id for key, or -1 if it has not been rendered yet
+    public int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return ids[slot];
+        }
+        return -1;
+    }
+    
+    public boolean isFull() {
+        return full;
+    }
+    
+    // Renders a width x height shape (plus pad pixels on each side) into the atlas.
+    // Returns -1 once the atlas is full; draw directly then, or clear() to make room.
+    public int add(long key, int width, int height, int pad, ActiveRenderer.Painter painter) {
+        int w = width + pad * 2;
+        int h = height + pad * 2;
+        if (w > size || h > size) return -1;
+        
+        if (full || !reserve(w, h)) {
+            full = true;
+            return -1;
+        }
+        
+        int id = spriteCount++;
+        if (id == spriteX.length) {
+            int capacity = id * 2;
+            spriteX = Arrays.copyOf(spriteX, capacity);
+            spriteY = Arrays.copyOf(spriteY, capacity);
+            spriteWidth = Arrays.copyOf(spriteWidth, capacity);
+            spriteHeight = Arrays.copyOf(spriteHeight, capacity);
+            spritePad = Arrays.copyOf(spritePad, capacity);
+        }
+        spriteX[id] = shelfX;
+        spriteY[id] = shelfY;
+        spriteWidth[id] = w;
+        spriteHeight[id] = h;
+        spritePad[id] = pad;
+        shelfX += w;
+        put(key, id);
+        
+        if (image == null) {
+            image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        Graphics2D g2 = image.createGraphics();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setClip(spriteX[id], spriteY[id], w, h);
+            g2.translate(spriteX[id] + pad, spriteY[id] + pad);
+            painter.draw(g2, width, height);
+        } finally {
+            g2.dispose();
+        }
+        return id;
+    }
+    
+    // Draws a sprite with its shape's top-left corner at (x, y)
+    public void draw(Graphics2D g2, int id, int x, int y) {
+        int sx = spriteX[id];
+        int sy = spriteY[id];
+        int w = spriteWidth[id];
+        int h = spriteHeight[id];
+        int dx = x - spritePad[id];
+        int dy = y - spritePad[id];
+        g2.drawImage(image, dx, dy, dx + w, dy + h, sx, sy, sx + w, sy + h, null);
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        spriteCount = 0;
+        full = false;
+        shelfX = 0;
+        shelfY = 0;
+        shelfHeight = 0;
+        if (image != null) {
+            Graphics2D g2 = image.createGraphics();
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, size, size);
+            g2.dispose();
+        }
+    }
+    
+    // Like clear(), but also frees the backing image; the next add() allocates a new one
+    public void release() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+        clear();
+    }
+    
+    private boolean reserve(int w, int h) {
+        if (shelfX + w > size) {
+            shelfY += shelfHeight;
+            shelfX = 0;
+            shelfHeight = 0;
+        }
+        if (shelfY + h > size) return false;
+        shelfHeight = Math.max(shelfHeight, h);
+        return true;
+    }
+    
+    private void put(long key, int id) {
+        // Keep the table at most half full
+        if (spriteCount * 2 > keys.length) {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    insert(oldKeys[i], oldIds[i]);
+                }
+            }
+        }
+        insert(key, id);
+    }
+    
+    private void insert(long key, int id) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        ids[slot] = id;
+    }
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
\ No newline at end of file
@@ -1,70 +1,130 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
-public class SumoBallGame {
+public class SumoBallGame implements LoopGame, HeadlessGame {
     private GameManager gameManager;
     private SumoBallPanel gamePanel;
-    private Timer gameTimer;
-    private boolean isRunning = false;
-    private boolean isPaused = false;
+    private GameLoop gameLoop;
+    private ActiveRenderer renderer;
+    private GameMetrics metrics;
+    private ReplayRecorder recorder = new ReplayRecorder(GameType.SUMO_BALL);
+    private InputQueue input = new InputQueue(256);
+    private InputQueue.Handler inputHandler = this::applyInput;
+    private long tickCount = 0;
+    private volatile boolean isRunning = false;
+    private volatile boolean isPaused = false;
+    private volatile boolean isOver = false;
+    
+    // Finished ticks, the only game state the panel reads
+    private SnapshotBuffer<Snapshot> snapshots = new SnapshotBuffer<>(Snapshot::new);
+    // How far the frame being drawn is between the last two ticks, 0..1
+    private volatile double renderAlpha = 1;
     
     // Game variables
     private PlayerBall player;
-    private List<EnemyBall> enemies;
+    private BallStore enemies;
     private Random random;
     private int score = 0;
     private int arenaSize = 500;
+    private int baseEnemyCount = 5;
+    // Enemy radii run from MIN_ENEMY_RADIUS to MIN_ENEMY_RADIUS + ENEMY_RADII - 1
+    private static final int MIN_ENEMY_RADIUS = 20;
+    private static final int ENEMY_RADII = 20;
+    
+    // Broad phase over the arena. Each enemy covers the box around this tick's whole path,
+    // so the cell size does not depend on how fast enemies move
+    private SpatialHashGrid enemyGrid = new SpatialHashGrid(400 - arenaSize / 2, 300 - arenaSize / 2,
+                                                            arenaSize, arenaSize, 80);
+    // Optional multi-core physics (-Dgame.parallelPhysics=true); it produces exactly the serial results
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static ParallelPhysics parallelPhysics;
+    private boolean parallel = Boolean.getBoolean("game.parallelPhysics");
+    
+    private SpatialHashGrid.PairVisitor enemyCollider = (a, b) -> {
+        if (checkCollision(a, b)) {
+            handleCollision(a, b);
+        } else {
+            // Touched during the tick but already apart again: collide where they first touched
+            double t = sweptContact(a, b);
+            if (t > 0) {
+                rewindToContact(a, t);
+                rewindToContact(b, t);
+                handleCollision(a, b);
+            }
+        }
+    };
     
     public SumoBallGame(GameManager manager) {
         this.gameManager = manager;
         this.gamePanel = new SumoBallPanel();
+        this.renderer = new ActiveRenderer(gamePanel, gamePanel::draw);
         this.random = new Random();
+        this.gameLoop = new GameLoop("Sumo Ball", this);
+        this.metrics = new GameMetrics("Sumo Ball");
+        gameLoop.setMetrics(metrics);
         initializeGame();
     }
     
     private void initializeGame() {
         player = new PlayerBall(400, 300);
-        enemies = new ArrayList<>();
+        enemies = new BallStore(64);
         setupKeyListener();
+        publishSnapshot();
     }
     
     public JPanel getGamePanel() {
         return gamePanel;
     }
     
+    // Paints the current frame onto any surface, e.g. an offscreen image
+    void renderTo(Graphics2D g2, int width, int height) {
+        gamePanel.draw(g2, width, height);
+    }
+    
+    // Enemies present at the start of a round; stress tests raise this far above the default 5
+    public void setBaseEnemyCount(int count) {
+        baseEnemyCount = count;
+        enemies.reserve(count * 2);
+    }
+    
+    // Same switch as -Dgame.parallelPhysics; rounds below PARALLEL_THRESHOLD enemies stay serial anyway
+    public void setParallelPhysics(boolean enabled) {
+        parallel = enabled;
+    }
+    
     public void startGame() {
+        // Every round gets its own seed so it can be replayed exactly
+        long seed = random.nextLong();
+        gameLoop.stop();
+        input.clear();
+        reset(seed);
+        recorder.begin(seed);
+        gameLoop.start();
+    }
+    
+    @Override
+    public void reset(long seed) {
+        random.setSeed(seed);
+        resetState();
+    }
+    
+    private void resetState() {
         isRunning = true;
         isPaused = false;
+        isOver = false;
+        tickCount = 0;
         player = new PlayerBall(400, 300);
         score = 0;
         enemies.clear();
         
         // Create initial enemies
-        for (int i = 0; i < 5; i++) {
+        for (int i = 0; i < baseEnemyCount; i++) {
             spawnEnemy();
         }
-        
-        if (gameTimer != null && gameTimer.isRunning()) {
-            gameTimer.stop();
-        }
-        
-        gameTimer = new Timer(16, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                if (!isPaused) {
-                    updateGame();
-                    gamePanel.repaint();
-                }
-            }
-        });
-        gameTimer.start();
+        publishSnapshot();
     }
     
     public void pauseGame() {
@@ -77,55 +137,132 @@ public class SumoBallGame {
     
     public void stopGame() {
         isRunning = false;
-        if (gameTimer != null) {
-            gameTimer.stop();
+        // A running tick may still record input, so the recording is dropped only after the loop has ended
+        gameLoop.stop();
+        recorder.cancel();
+    }
+    
+    // Frees what an idle game holds on to; only call after stopGame(), startGame() rebuilds it all.
+    // Enemy and snapshot arrays are replaced, since a big arena leaves them sized for thousands.
+    public void releaseResources() {
+        enemies = new BallStore(Math.max(64, baseEnemyCount * 2));
+        snapshots = new SnapshotBuffer<>(Snapshot::new);
+        publishSnapshot();
+        gamePanel.releaseCaches();
+    }
+    
+    @Override
+    public void tick() {
+        // Nothing is applied or recorded while paused; releases made meanwhile wait for the resume
+        if (!isPaused) {
+            input.drain(inputHandler);
+            updateGame();
+            metrics.setEntityCount(enemies.size + 1);
+            metrics.setPoolCounts(enemies.getHits(), enemies.getMisses());
+            publishSnapshot();
+        }
+    }
+    
+    // Key events reach the game here, on the loop thread, stamped with the tick they apply to
+    private void applyInput(int keyCode, boolean pressed) {
+        recorder.record(tickCount, keyCode, pressed);
+        if (pressed) {
+            pressKey(keyCode);
+        } else {
+            releaseKey(keyCode);
+        }
+    }
+    
+    private void publishSnapshot() {
+        snapshots.getBack().capture();
+        snapshots.publish();
+    }
+    
+    @Override
+    public void render(double alpha) {
+        // A paused game has no next tick to move towards
+        renderAlpha = isPaused || isOver ? 1 : alpha;
+        if (!renderer.render()) {
+            gamePanel.repaint();
         }
     }
     
     private void updateGame() {
         if (!isRunning) return;
+        tickCount++;
         
         // Update player
         player.update();
         
-        // Update enemies
-        for (EnemyBall enemy : enemies) {
-            enemy.update(player);
-            
-            // Check collision with player
-            if (checkCollision(player, enemy)) {
-                handleCollision(player, enemy);
-            }
-            
-            // Check collision between enemies
-            for (EnemyBall other : enemies) {
-                if (enemy != other && checkCollision(enemy, other)) {
-                    handleCollision(enemy, other);
+        // Update enemies, on all cores for very large arenas
+        boolean useParallel = parallel && enemies.size >= PARALLEL_THRESHOLD;
+        if (useParallel) {
+            physics().steerAndIntegrate(enemies, player.x, player.y, 1.5, 100, 0.95);
+        } else {
+            enemies.steer(player.x, player.y, 1.5, 100);
+            enemies.integrate(0.95);
+        }
+        
+        // Check collision with player
+        for (int i = 0; i < enemies.size; i++) {
+            if (checkCollision(player, i)) {
+                handleCollision(player, i);
+            } else {
+                double t = sweptContact(player, i);
+                if (t > 0) {
+                    player.x = player.px + (player.x - player.px) * t;
+                    player.y = player.py + (player.y - player.py) * t;
+                    rewindToContact(i, t);
+                    handleCollision(player, i);
                 }
             }
         }
         
+        // Check collision between enemies whose swept boxes overlap, each pair once. A fast enemy
+        // spans more cells instead of making every cell bigger, and one flying out of the arena
+        // is clamped to the border cells it crosses.
+        enemyGrid.begin(enemies.size);
+        for (int i = 0; i < enemies.size; i++) {
+            int r = enemies.radius[i];
+            enemyGrid.set(i, Math.min(enemies.px[i], enemies.x[i]) - r, Math.min(enemies.py[i], enemies.y[i]) - r,
+                          Math.max(enemies.px[i], enemies.x[i]) + r, Math.max(enemies.py[i], enemies.y[i]) + r);
+        }
+        enemyGrid.finish();
+        if (useParallel) {
+            physics().resolvePairs(enemyGrid, enemyCollider);
+        } else {
+            enemyGrid.forEachPair(enemyCollider);
+        }
+        
         // Remove enemies that fell off and spawn new ones
-        List<EnemyBall> enemiesToRemove = new ArrayList<>();
-        for (EnemyBall enemy : enemies) {
-            if (isOutOfArena(enemy)) {
-                enemiesToRemove.add(enemy);
+        int i = 0;
+        while (i < enemies.size) {
+            if (isOutOfArena(enemies.x[i], enemies.y[i])) {
+                enemies.remove(i);
                 score += 10;
+            } else {
+                i++;
             }
         }
-        enemies.removeAll(enemiesToRemove);
         
         // Spawn new enemies
-        while (enemies.size() < 5 + score / 50) {
+        while (enemies.size < baseEnemyCount + score / 50) {
             spawnEnemy();
         }
         
         // Check if player fell off
-        if (isOutOfArena(player)) {
+        if (isOutOfArena(player.x, player.y)) {
             gameOver();
         }
     }
     
+    private static synchronized ParallelPhysics physics() {
+        if (parallelPhysics == null) {
+            parallelPhysics = new ParallelPhysics(Runtime.getRuntime().availableProcessors());
+        }
+        return parallelPhysics;
+    }
+    
     private void spawnEnemy() {
         int x, y;
         do {
@@ -133,50 +270,143 @@ public class SumoBallGame {
             y = 150 + random.nextInt(300);
         } while (Math.hypot(x - player.x, y - player.y) < 100);
         
-        enemies.add(new EnemyBall(x, y, 20 + random.nextInt(20)));
+        int radius = MIN_ENEMY_RADIUS + random.nextInt(ENEMY_RADII);
+        // Each channel is cut to dark or light, so every radius and colour pair has a sprite
+        int red = random.nextInt(200) / 100;
+        int green = random.nextInt(200) / 100;
+        int blue = random.nextInt(200) / 100;
+        enemies.add(x, y, radius, (red << 2) | (green << 1) | blue);
     }
     
-    private boolean checkCollision(Ball b1, Ball b2) {
-        double dx = b1.x - b2.x;
-        double dy = b1.y - b2.y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        return distance < (b1.radius + b2.radius);
+    private boolean checkCollision(Ball b, int e) {
+        double dx = b.x - enemies.x[e];
+        double dy = b.y - enemies.y[e];
+        double reach = b.radius + enemies.radius[e];
+        return dx * dx + dy * dy < reach * reach;
+    }
+    
+    private boolean checkCollision(int a, int b) {
+        double dx = enemies.x[a] - enemies.x[b];
+        double dy = enemies.y[a] - enemies.y[b];
+        double reach = enemies.radius[a] + enemies.radius[b];
+        return dx * dx + dy * dy < reach * reach;
+    }
+    
+    // Time in this tick the two first touched, judged from their start and end positions;
+    // 0 if they already overlapped at the start, -1 if they never touched
+    private double sweptContact(Ball b, int e) {
+        return Collisions.sweptCircles(b.px, b.py, b.x - b.px, b.y - b.py,
+                                       enemies.px[e], enemies.py[e], enemies.x[e] - enemies.px[e],
+                                       enemies.y[e] - enemies.py[e], b.radius + enemies.radius[e]);
+    }
+    
+    private double sweptContact(int a, int b) {
+        return Collisions.sweptCircles(enemies.px[a], enemies.py[a], enemies.x[a] - enemies.px[a],
+                                       enemies.y[a] - enemies.py[a], enemies.px[b], enemies.py[b],
+                                       enemies.x[b] - enemies.px[b], enemies.y[b] - enemies.py[b],
+                                       enemies.radius[a] + enemies.radius[b]);
     }
     
-    private void handleCollision(Ball b1, Ball b2) {
+    // Moves an enemy back along this tick's path to where it was at time t
+    private void rewindToContact(int e, double t) {
+        enemies.x[e] = enemies.px[e] + (enemies.x[e] - enemies.px[e]) * t;
+        enemies.y[e] = enemies.py[e] + (enemies.y[e] - enemies.py[e]) * t;
+    }
+    
+    private void handleCollision(Ball b, int e) {
         // Simple elastic collision
-        double dx = b2.x - b1.x;
-        double dy = b2.y - b1.y;
+        double dx = enemies.x[e] - b.x;
+        double dy = enemies.y[e] - b.y;
         double distance = Math.sqrt(dx * dx + dy * dy);
         
         if (distance == 0) return;
         
-        double overlap = (b1.radius + b2.radius - distance) / 2.0;
+        double nx = dx / distance;
+        double ny = dy / distance;
+        double overlap = (b.radius + enemies.radius[e] - distance) / 2.0;
         
         // Separate balls
-        b1.x -= overlap * (dx / distance);
-        b1.y -= overlap * (dy / distance);
-        b2.x += overlap * (dx / distance);
-        b2.y += overlap * (dy / distance);
+        b.x -= overlap * nx;
+        b.y -= overlap * ny;
+        enemies.x[e] += overlap * nx;
+        enemies.y[e] += overlap * ny;
         
         // Calculate new velocities (simplified)
         double force = 2.0;
-        b1.vx -= force * (dx / distance);
-        b1.vy -= force * (dy / distance);
-        b2.vx += force * (dx / distance);
-        b2.vy += force * (dy / distance);
+        b.vx -= force * nx;
+        b.vy -= force * ny;
+        enemies.vx[e] += force * nx;
+        enemies.vy[e] += force * ny;
+    }
+    
+    private void handleCollision(int a, int b) {
+        double dx = enemies.x[b] - enemies.x[a];
+        double dy = enemies.y[b] - enemies.y[a];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        
+        if (distance == 0) return;
+        
+        double nx = dx / distance;
+        double ny = dy / distance;
+        double overlap = (enemies.radius[a] + enemies.radius[b] - distance) / 2.0;
+        
+        enemies.x[a] -= overlap * nx;
+        enemies.y[a] -= overlap * ny;
+        enemies.x[b] += overlap * nx;
+        enemies.y[b] += overlap * ny;
+        
+        double force = 2.0;
+        enemies.vx[a] -= force * nx;
+        enemies.vy[a] -= force * ny;
+        enemies.vx[b] += force * nx;
+        enemies.vy[b] += force * ny;
+    }
+    
+    private boolean isOutOfArena(double x, double y) {
+        double dx = x - 400;
+        double dy = y - 300;
+        double limit = arenaSize / 2;
+        return dx * dx + dy * dy > limit * limit;
+    }
+    
+    @Override
+    public boolean isOver() {
+        return isOver;
     }
     
-    private boolean isOutOfArena(Ball ball) {
-        double distanceFromCenter = Math.hypot(ball.x - 400, ball.y - 300);
-        return distanceFromCenter > arenaSize / 2;
+    @Override
+    public int getScore() {
+        return score;
+    }
+    
+    @Override
+    public void pressKey(int keyCode) {
+        if (keyCode == KeyEvent.VK_LEFT) {
+            player.vx = -5;
+        } else if (keyCode == KeyEvent.VK_RIGHT) {
+            player.vx = 5;
+        } else if (keyCode == KeyEvent.VK_UP) {
+            player.vy = -5;
+        } else if (keyCode == KeyEvent.VK_DOWN) {
+            player.vy = 5;
+        }
+    }
+    
+    @Override
+    public void releaseKey(int keyCode) {
+        if (keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_RIGHT) {
+            player.vx = 0;
+        } else if (keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_DOWN) {
+            player.vy = 0;
+        }
     }
     
     private void gameOver() {
         isRunning = false;
-        gameTimer.stop();
-        JOptionPane.showMessageDialog(gamePanel, "Game Over! Final Score: " + score);
-        gameManager.showMainMenu();
+        isOver = true;
+        recorder.finish(tickCount, score);
+        // The loop keeps running so the panel can draw the game-over screen;
+        // the key listener on the EDT leaves it through the game manager
     }
     
     private void setupKeyListener() {
@@ -189,26 +419,30 @@ public class SumoBallGame {
             
             @Override
             public void keyPressed(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                if (isOver) {
+                    // Game-over screen: ENTER plays again, ESC goes back to the menu
+                    if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                        gameManager.restartCurrentGame();
+                    } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        gameManager.returnToMainMenu();
+                    }
+                } else if (isPaused) {
+                    // The pause menu is up: ESC closes it, every other key is ignored
+                    if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                        gameManager.resumeGame();
+                    }
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                     gameManager.showInGameMenu();
-                } else if (e.getKeyCode() == KeyEvent.VK_LEFT) {
-                    player.vx = -5;
-                } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                    player.vx = 5;
-                } else if (e.getKeyCode() == KeyEvent.VK_UP) {
-                    player.vy = -5;
-                } else if (e.getKeyCode() == KeyEvent.VK_DOWN) {
-                    player.vy = 5;
+                } else if (e.getKeyCode() == KeyEvent.VK_F3) {
+                    metrics.toggleOverlay();
+                } else {
+                    input.offer(e.getKeyCode(), true);
                 }
             }
             
             @Override
             public void keyReleased(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_LEFT || e.getKeyCode() == KeyEvent.VK_RIGHT) {
-                    player.vx = 0;
-                } else if (e.getKeyCode() == KeyEvent.VK_UP || e.getKeyCode() == KeyEvent.VK_DOWN) {
-                    player.vy = 0;
-                }
+                input.offer(e.getKeyCode(), false);
             }
         });
     }
@@ -216,6 +450,7 @@ public class SumoBallGame {
     // Ball classes
     class Ball {
         double x, y;
+        double px, py; // Position at the start of the current tick
         double vx, vy;
         int radius;
         Color color;
@@ -223,9 +458,13 @@ public class SumoBallGame {
         public Ball(double x, double y) {
             this.x = x;
             this.y = y;
+            this.px = x;
+            this.py = y;
         }
         
         public void update() {
+            px = x;
+            py = y;
             x += vx;
             y += vy;
             
@@ -243,114 +482,217 @@ public class SumoBallGame {
         }
     }
     
-    class EnemyBall extends Ball {
-        public EnemyBall(double x, double y, int radius) {
-            super(x, y);
-            this.radius = radius;
-            this.color = new Color(
-                random.nextInt(200),
-                random.nextInt(200), 
-                random.nextInt(200)
-            );
-        }
+    // Copy of everything the panel draws, refilled in place at the end of a tick
+    class Snapshot {
+        double playerX, playerY;
+        double previousPlayerX, previousPlayerY;
+        int playerRadius;
+        int score;
+        boolean over;
+        int enemyCount;
+        double[] enemyX = new double[64];
+        double[] enemyY = new double[64];
+        double[] previousEnemyX = new double[64];
+        double[] previousEnemyY = new double[64];
+        int[] enemyRadius = new int[64];
+        int[] enemyColor = new int[64];
         
-        public void update(PlayerBall player) {
-            // Simple AI: move towards player but avoid getting too close
-            double dx = player.x - x;
-            double dy = player.y - y;
-            double distance = Math.sqrt(dx * dx + dy * dy);
-            
-            if (distance > 0) {
-                double speed = 1.5;
-                if (distance < 100) {
-                    // Move away if too close
-                    vx -= speed * (dx / distance);
-                    vy -= speed * (dy / distance);
-                } else {
-                    // Move towards player
-                    vx += speed * (dx / distance);
-                    vy += speed * (dy / distance);
-                }
+        void capture() {
+            playerX = player.x;
+            playerY = player.y;
+            previousPlayerX = player.px;
+            previousPlayerY = player.py;
+            playerRadius = player.radius;
+            score = SumoBallGame.this.score;
+            over = isOver;
+            enemyCount = enemies.size;
+            if (enemyX.length < enemyCount) {
+                int capacity = Math.max(enemyCount, enemyX.length * 2);
+                enemyX = new double[capacity];
+                enemyY = new double[capacity];
+                previousEnemyX = new double[capacity];
+                previousEnemyY = new double[capacity];
+                enemyRadius = new int[capacity];
+                enemyColor = new int[capacity];
             }
-            
-            // Apply friction and update position
-            super.update();
+            System.arraycopy(enemies.x, 0, enemyX, 0, enemyCount);
+            System.arraycopy(enemies.y, 0, enemyY, 0, enemyCount);
+            System.arraycopy(enemies.px, 0, previousEnemyX, 0, enemyCount);
+            System.arraycopy(enemies.py, 0, previousEnemyY, 0, enemyCount);
+            System.arraycopy(enemies.radius, 0, enemyRadius, 0, enemyCount);
+            System.arraycopy(enemies.color, 0, enemyColor, 0, enemyCount);
         }
     }
     
     // Separate GamePanel class for Sumo Ball
     class SumoBallPanel extends JPanel {
+        private LayerCache background = new LayerCache(this::drawBackground);
+        // Holds one sprite per enemy radius and colour, about 720 of its 1024 rows, plus the player
+        private SpriteAtlas sprites = new SpriteAtlas(1024);
+        private final int[] enemySprites = new int[ENEMY_RADII * RenderResources.ENEMY_BALLS.length];
+        private int playerSprite = -1;
+        private boolean spritesLoaded = false;
+        
+        // Enemy sprite keys are their index in enemySprites, so this never collides with them
+        private static final long PLAYER_SPRITE = -1;
+        
+        private final RenderResources.Gradient backdrop =
+                new RenderResources.Gradient(RenderResources.ARENA_TOP, RenderResources.ARENA_BOTTOM, false);
+        
+        // HUD text is pre-rendered; only the digits of the score change from frame to frame
+        private final HudText hud = new HudText(RenderResources.SCORE_FONT, Color.WHITE);
+        private final int scoreLabel = hud.addLine("Score: ", RenderResources.SCORE_FONT, Color.WHITE);
+        private final int hintLine = hud.addLine("Use ARROW KEYS to move, ESC for menu, F3 for stats", RenderResources.HINT_FONT, Color.WHITE);
+        private final int secondHintLine = hud.addLine("Push other balls out of the arena!", RenderResources.HINT_FONT, Color.WHITE);
+        private final int pausedLine = hud.addLine("PAUSED", RenderResources.PAUSE_FONT, Color.YELLOW);
+        private final int gameOverLine = hud.addLine("GAME OVER", RenderResources.PAUSE_FONT, Color.YELLOW);
+        private final int finalScoreLabel = hud.addLine("Final Score: ", RenderResources.SCORE_FONT, Color.WHITE);
+        private final int restartLine = hud.addLine("Press ENTER to play again or ESC for the menu", RenderResources.HINT_FONT, Color.WHITE);
+        
+        // Drops the cached images; they are rendered again on the next draw
+        void releaseCaches() {
+            background.invalidate();
+            sprites.release();
+            spritesLoaded = false;
+            hud.release();
+        }
+        
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            
+            // Once the loop renders to its own canvas, painting here too would race with it
+            if (renderer.isActive()) return;
+            draw((Graphics2D) g, getWidth(), getHeight());
+        }
+        
+        private void drawBackground(Graphics2D g2, int width, int height) {
             // Draw background
-            GradientPaint bgGradient = new GradientPaint(0, 0, new Color(50, 50, 80), 
-                                                       0, getHeight(), new Color(30, 30, 50));
-            g2.setPaint(bgGradient);
-            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setPaint(backdrop.get(width, height));
+            g2.fillRect(0, 0, width, height);
             
             // Draw arena
-            g2.setColor(new Color(200, 200, 220));
+            g2.setColor(RenderResources.ARENA_FLOOR);
             g2.fillOval(400 - arenaSize/2, 300 - arenaSize/2, arenaSize, arenaSize);
-            g2.setColor(new Color(100, 100, 120));
-            g2.setStroke(new BasicStroke(5));
+            g2.setColor(RenderResources.ARENA_EDGE);
+            g2.setStroke(RenderResources.THICK_STROKE);
             g2.drawOval(400 - arenaSize/2, 300 - arenaSize/2, arenaSize, arenaSize);
             
             // Draw center circle
-            g2.setColor(new Color(150, 150, 170));
-            g2.setStroke(new BasicStroke(2));
+            g2.setColor(RenderResources.ARENA_CENTER);
+            g2.setStroke(RenderResources.THIN_STROKE);
             g2.drawOval(400 - 50, 300 - 50, 100, 100);
-            
-            // Draw enemy balls
-            for (EnemyBall enemy : enemies) {
-                g2.setColor(enemy.color);
-                g2.fillOval((int)(enemy.x - enemy.radius), (int)(enemy.y - enemy.radius), 
-                           enemy.radius * 2, enemy.radius * 2);
-                g2.setColor(Color.BLACK);
-                g2.setStroke(new BasicStroke(2));
-                g2.drawOval((int)(enemy.x - enemy.radius), (int)(enemy.y - enemy.radius), 
-                           enemy.radius * 2, enemy.radius * 2);
+        }
+        
+        // Renders every sprite up front, the player first and then enemies largest first so the
+        // shelves pack tightly. Nothing is added while drawing, so frames never build painters
+        // or fall back to antialiased ovals
+        private void loadSprites(int playerRadius) {
+            int diameter = playerRadius * 2;
+            playerSprite = sprites.add(PLAYER_SPRITE, diameter, diameter, 2, this::drawPlayer);
+            int colors = RenderResources.ENEMY_BALLS.length;
+            for (int radius = MIN_ENEMY_RADIUS + ENEMY_RADII - 1; radius >= MIN_ENEMY_RADIUS; radius--) {
+                for (int color = 0; color < colors; color++) {
+                    int key = (radius - MIN_ENEMY_RADIUS) * colors + color;
+                    int r = radius;
+                    int c = color;
+                    enemySprites[key] = sprites.isFull() ? -1
+                            : sprites.add(key, r * 2, r * 2, 2, (sg, w, h) -> drawEnemy(sg, 0, 0, r, c));
+                }
             }
-            
-            // Draw player ball
-            g2.setColor(player.color);
-            g2.fillOval((int)(player.x - player.radius), (int)(player.y - player.radius), 
-                       player.radius * 2, player.radius * 2);
+            spritesLoaded = true;
+        }
+        
+        private void drawEnemy(Graphics2D g2, int x, int y, int r, int color) {
+            g2.setColor(RenderResources.ENEMY_BALLS[color]);
+            g2.fillOval(x, y, r * 2, r * 2);
+            g2.setColor(Color.BLACK);
+            g2.setStroke(RenderResources.THIN_STROKE);
+            g2.drawOval(x, y, r * 2, r * 2);
+        }
+        
+        private void drawPlayer(Graphics2D g2, int width, int height) {
+            g2.setColor(Color.RED);
+            g2.fillOval(0, 0, width, height);
             g2.setColor(Color.WHITE);
-            g2.setStroke(new BasicStroke(3));
-            g2.drawOval((int)(player.x - player.radius), (int)(player.y - player.radius), 
-                       player.radius * 2, player.radius * 2);
+            g2.setStroke(RenderResources.MEDIUM_STROKE);
+            g2.drawOval(0, 0, width, height);
             
             // Draw player eyes
+            int cx = width / 2;
+            int cy = height / 2;
             g2.setColor(Color.WHITE);
-            g2.fillOval((int)(player.x - 8), (int)(player.y - 8), 10, 10);
-            g2.fillOval((int)(player.x - 2), (int)(player.y - 8), 10, 10);
+            g2.fillOval(cx - 8, cy - 8, 10, 10);
+            g2.fillOval(cx - 2, cy - 8, 10, 10);
             g2.setColor(Color.BLACK);
-            g2.fillOval((int)(player.x - 6), (int)(player.y - 6), 5, 5);
-            g2.fillOval((int)(player.x + 4), (int)(player.y - 6), 5, 5);
+            g2.fillOval(cx - 6, cy - 6, 5, 5);
+            g2.fillOval(cx + 4, cy - 6, 5, 5);
+        }
+        
+        void draw(Graphics2D g2, int width, int height) {
+            long paintStart = System.nanoTime();
+            Snapshot frame = snapshots.getFront();
+            double alpha = renderAlpha;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            
+            // Static scenery is rendered once and blitted every frame
+            background.draw(g2, width, height);
+            
+            // Draw enemy balls from pre-rendered sprites
+            if (!spritesLoaded) {
+                loadSprites(frame.playerRadius);
+            }
+            int colors = RenderResources.ENEMY_BALLS.length;
+            for (int i = 0; i < frame.enemyCount; i++) {
+                int r = frame.enemyRadius[i];
+                int color = frame.enemyColor[i];
+                double previousX = frame.previousEnemyX[i];
+                double previousY = frame.previousEnemyY[i];
+                int x = (int)(previousX + (frame.enemyX[i] - previousX) * alpha - r);
+                int y = (int)(previousY + (frame.enemyY[i] - previousY) * alpha - r);
+                int sprite = enemySprites[(r - MIN_ENEMY_RADIUS) * colors + color];
+                if (sprite >= 0) {
+                    sprites.draw(g2, sprite, x, y);
+                } else {
+                    drawEnemy(g2, x, y, r, color);
+                }
+            }
+            
+            // Draw player ball
+            int diameter = frame.playerRadius * 2;
+            int px = (int)(frame.previousPlayerX + (frame.playerX - frame.previousPlayerX) * alpha - frame.playerRadius);
+            int py = (int)(frame.previousPlayerY + (frame.playerY - frame.previousPlayerY) * alpha - frame.playerRadius);
+            if (playerSprite >= 0) {
+                sprites.draw(g2, playerSprite, px, py);
+            } else {
+                g2.translate(px, py);
+                drawPlayer(g2, diameter, diameter);
+                g2.translate(-px, -py);
+            }
             
             // Draw score
-            g2.setColor(Color.WHITE);
-            g2.setFont(new Font("Arial", Font.BOLD, 24));
-            g2.drawString("Score: " + score, 20, 30);
+            hud.drawLabelled(g2, scoreLabel, frame.score, 20, 30);
             
             // Draw controls hint
-            g2.setFont(new Font("Arial", Font.PLAIN, 14));
-            g2.drawString("Use ARROW KEYS to move, ESC for menu", 20, getHeight() - 20);
-            g2.drawString("Push other balls out of the arena!", 20, getHeight() - 40);
+            hud.drawLine(g2, hintLine, 20, height - 20);
+            hud.drawLine(g2, secondHintLine, 20, height - 40);
             
             if (isPaused) {
-                g2.setColor(new Color(0, 0, 0, 150));
-                g2.fillRect(0, 0, getWidth(), getHeight());
-                g2.setColor(Color.YELLOW);
-                g2.setFont(new Font("Arial", Font.BOLD, 36));
-                String pauseText = "PAUSED";
-                int textWidth = g2.getFontMetrics().stringWidth(pauseText);
-                g2.drawString(pauseText, (getWidth() - textWidth) / 2, getHeight() / 2);
+                g2.setColor(RenderResources.PAUSE_SHADE);
+                g2.fillRect(0, 0, width, height);
+                hud.drawCentered(g2, pausedLine, width, height / 2);
             }
+            
+            if (frame.over) {
+                g2.setColor(RenderResources.PAUSE_SHADE);
+                g2.fillRect(0, 0, width, height);
+                hud.drawCentered(g2, gameOverLine, width, height / 2 - 30);
+                int scoreWidth = hud.getWidth(finalScoreLabel) + hud.getNumberWidth(frame.score);
+                hud.drawLabelled(g2, finalScoreLabel, frame.score, (width - scoreWidth) / 2, height / 2 + 10);
+                hud.drawCentered(g2, restartLine, width, height / 2 + 45);
+            }
+            
+            metrics.drawOverlay(g2, width);
+            metrics.recordFrame(System.nanoTime() - paintStart);
         }
     }
 }
\ No newline at end of file
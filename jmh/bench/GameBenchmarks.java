@@ -0,0 +1,37 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// JMH refuses benchmark classes in the default package, and named packages cannot import
+// the game classes, so the workloads come from Benchmarks.workload() by reflection. The
+// lookup happens once per trial, outside the measured code
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GameBenchmarks {
+    @Param({
+            "update.madDriver", "update.madDriver.dense", "update.flyBird",
+            "update.sumo.5", "update.sumo.50", "update.sumo.500", "update.sumo.5000",
+            "update.sumoParallel.5000", "update.sumoParallel.10000",
+            "render.madDriver", "render.flyBird",
+            "render.sumo.5", "render.sumo.50", "render.sumo.500", "render.sumo.5000"
+    })
+    public String workload;
+    
+    private Runnable op;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        op = (Runnable) Class.forName("Benchmarks").getMethod("workload", String.class).invoke(null, workload);
+    }
+    
+    @Benchmark
+    public void run() {
+        op.run();
+    }
+}
\ No newline at end of file
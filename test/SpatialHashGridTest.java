@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks forEachPair against an O(n^2) scan, so broad-phase changes cannot drop or repeat pairs
+public class SpatialHashGridTest {
+    // The Sumo arena and cell size
+    private static final double ORIGIN_X = 150;
+    private static final double ORIGIN_Y = 50;
+    private static final double SIZE = 500;
+    private static final double CELL = 80;
+    
+    @Test
+    public void smallBoxesMatchBruteForce() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 100; trial++) {
+            checkTrial(random, 1 + random.nextInt(300), 80);
+        }
+    }
+    
+    // Boxes up to the whole arena and beyond it, spanning many cells and clamped at the border
+    @Test
+    public void oversizedBoxesMatchBruteForce() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 100; trial++) {
+            checkTrial(random, 1 + random.nextInt(150), 700);
+        }
+    }
+    
+    private static void checkTrial(Random random, int count, double maxSize) {
+        double[][] boxes = new double[count][];
+        SpatialHashGrid grid = new SpatialHashGrid(ORIGIN_X, ORIGIN_Y, SIZE, SIZE, CELL);
+        grid.begin(count);
+        for (int i = 0; i < count; i++) {
+            double x = ORIGIN_X - 100 + random.nextDouble() * (SIZE + 200);
+            double y = ORIGIN_Y - 100 + random.nextDouble() * (SIZE + 200);
+            double width = random.nextDouble() * maxSize;
+            double height = random.nextDouble() * maxSize;
+            boxes[i] = new double[] {x, y, x + width, y + height};
+            grid.set(i, x, y, x + width, y + height);
+        }
+        grid.finish();
+        
+        Set<Long> found = new HashSet<>();
+        grid.forEachPair((a, b) -> assertTrue(found.add(key(a, b)), "pair visited twice: " + a + ", " + b));
+        
+        Set<Long> expected = new HashSet<>();
+        for (int a = 0; a < count; a++) {
+            for (int b = a + 1; b < count; b++) {
+                if (boxes[a][0] < boxes[b][2] && boxes[b][0] < boxes[a][2]
+                        && boxes[a][1] < boxes[b][3] && boxes[b][1] < boxes[a][3]) {
+                    expected.add(key(a, b));
+                }
+            }
+        }
+        assertEquals(expected, found);
+    }
+    
+    private static long key(int a, int b) {
+        return (long) Math.min(a, b) << 32 | Math.max(a, b);
+    }
+}
\ No newline at end of file